@@ -0,0 +1,143 @@
+package main;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+//what the last incremental build emitted: a content hash, the first line, the dependencies and the output files
+//of every class, and the tuple class names that the emitted classes refer to. it is only written after a
+//successful build
+public class BuildManifest {
+    public static final String FILE_NAME = "sophia.manifest";
+    private static final String HEADER = "sophia-manifest 2";
+
+    private String codeGenerationKey = "";
+    private final LinkedHashMap<String, ClassEntry> classes = new LinkedHashMap<>();
+    private final LinkedHashMap<String, String> tupleClassNames = new LinkedHashMap<>();
+
+    public static class ClassEntry {
+        private final String hash;
+        private final int line;
+        private final TreeSet<String> dependencies;
+        private final ArrayList<String> artifacts;
+
+        public ClassEntry(String hash, int line, TreeSet<String> dependencies, ArrayList<String> artifacts) {
+            this.hash = hash;
+            this.line = line;
+            this.dependencies = dependencies;
+            this.artifacts = artifacts;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public TreeSet<String> getDependencies() {
+            return dependencies;
+        }
+
+        public ArrayList<String> getArtifacts() {
+            return artifacts;
+        }
+    }
+
+    //a missing or unreadable manifest is the same as an empty one, which makes every class dirty
+    public static BuildManifest load(File file) {
+        BuildManifest manifest = new BuildManifest();
+        if (!file.isFile())
+            return manifest;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            if (!HEADER.equals(reader.readLine()))
+                return new BuildManifest();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ", -1);
+                if (parts[0].equals("key") && parts.length == 2)
+                    manifest.codeGenerationKey = parts[1];
+                else if (parts[0].equals("class") && parts.length == 6 && parts[3].matches("-?\\d+"))
+                    manifest.classes.put(parts[1], new ClassEntry(parts[2], Integer.parseInt(parts[3]),
+                            new TreeSet<>(split(parts[4])), split(parts[5])));
+                else if (parts[0].equals("tuple") && parts.length == 3)
+                    manifest.tupleClassNames.put(parts[1], parts[2]);
+                else
+                    return new BuildManifest();
+            }
+        } catch (IOException e) {
+            return new BuildManifest();
+        }
+        return manifest;
+    }
+
+    private static ArrayList<String> split(String list) {
+        ArrayList<String> items = new ArrayList<>();
+        if (!list.isEmpty())
+            items.addAll(Arrays.asList(list.split(",")));
+        return items;
+    }
+
+    //written next to the target and moved over it, so an interrupted build leaves the old manifest behind
+    public void save(File file) throws IOException {
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new FileWriter(temporaryFile))) {
+            writer.println(HEADER);
+            writer.println("key " + this.codeGenerationKey);
+            for (Map.Entry<String, ClassEntry> entry : this.classes.entrySet())
+                writer.println("class " + entry.getKey() + " " + entry.getValue().getHash() + " " + entry.getValue().getLine() + " "
+                        + String.join(",", entry.getValue().getDependencies()) + " "
+                        + String.join(",", entry.getValue().getArtifacts()));
+            for (Map.Entry<String, String> entry : this.tupleClassNames.entrySet())
+                writer.println("tuple " + entry.getKey() + " " + entry.getValue());
+        }
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //classes whose hash changed, together with everything that transitively depends on them. a class added or
+    //removed under a parent also dirties the users of its ancestors, since they may inline methods it overrides
+    public Set<String> getDirtyClasses(Map<String, String> hashes, Map<String, Collection<String>> ancestors) {
+        Set<String> dirty = new HashSet<>();
+        ArrayList<String> worklist = new ArrayList<>();
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            ClassEntry classEntry = this.classes.get(entry.getKey());
+            if (classEntry == null || !classEntry.getHash().equals(entry.getValue()))
+                worklist.add(entry.getKey());
+            if (classEntry == null)
+                worklist.addAll(ancestors.get(entry.getKey()));
+        }
+        for (String className : this.classes.keySet())
+            if (!hashes.containsKey(className))
+                worklist.add(className);
+        HashMap<String, ArrayList<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, ClassEntry> entry : this.classes.entrySet())
+            for (String dependency : entry.getValue().getDependencies())
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(entry.getKey());
+        while (!worklist.isEmpty()) {
+            String className = worklist.remove(worklist.size() - 1);
+            if (!dirty.add(className))
+                continue;
+            worklist.addAll(dependents.getOrDefault(className, new ArrayList<>()));
+        }
+        dirty.retainAll(hashes.keySet());
+        return dirty;
+    }
+
+    public String getCodeGenerationKey() {
+        return codeGenerationKey;
+    }
+
+    public void setCodeGenerationKey(String codeGenerationKey) {
+        this.codeGenerationKey = codeGenerationKey;
+    }
+
+    public LinkedHashMap<String, ClassEntry> getClasses() {
+        return classes;
+    }
+
+    public LinkedHashMap<String, String> getTupleClassNames() {
+        return tupleClassNames;
+    }
+}
@@ -0,0 +1,241 @@
+package main;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+//a directory of compiled outputs named by the hash of the source, the compiler build and the codegen options.
+//entries are filled in a private directory and renamed into place, so readers on a shared mount never see a
+//partial entry; hits touch the entry, and eviction drops the least recently used ones above the size limit.
+//eviction renames an entry out of the way before deleting it and holds the lock that readers share
+public class CompilationCache {
+    private static final String ENTRIES = "entries";
+    private static final String STATS = "stats";
+    private static final String LOCK = "lock";
+    private static final String TEMPORARY_PREFIX = ".tmp-";
+    private static final String EVICTED_PREFIX = TEMPORARY_PREFIX + "evicted-";
+
+    private final File directory;
+    private final long maxBytes;
+    private final boolean jasminFilesCached;
+
+    public CompilationCache(File directory, long maxBytes, boolean jasminFilesCached) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.jasminFilesCached = jasminFilesCached;
+        new File(directory, ENTRIES).mkdirs();
+    }
+
+    public static String getKey(String sourceText, String codeGenerationKey) {
+        return hash(getCompilerVersion() + "\n" + codeGenerationKey + "\n" + sourceText);
+    }
+
+    private static String hash(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest)
+                builder.append(String.format("%02x", b));
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //the contents of the compiler's classes and of the runtime classes it copies into every output, so
+    //identical builds of the compiler share entries across machines
+    private static String getCompilerVersion() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try {
+                File codeSource = new File(CompilationCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+                addContents(codeSource, "", digest);
+            } catch (URISyntaxException | SecurityException e) {
+                digest.update("unknown".getBytes(StandardCharsets.UTF_8));
+            }
+            addContents(new File("utilities/codeGenerationUtilityClasses"), "", digest);
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest())
+                builder.append(String.format("%02x", b));
+            return builder.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void addContents(File file, String relativePath, MessageDigest digest) throws IOException {
+        if (file.isDirectory()) {
+            File[] files = file.listFiles();
+            if (files == null)
+                return;
+            Arrays.sort(files);
+            for (File child : files)
+                addContents(child, relativePath + "/" + child.getName(), digest);
+        }
+        else if (file.isFile()) {
+            digest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+            digest.update(Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    private File getEntry(String key) {
+        return new File(new File(this.directory, ENTRIES), key);
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    //runs action holding the lock file's lock, shared for reading an entry and exclusive for changing the cache
+    private <T> T withLock(boolean shared, LockedAction<T> action) throws IOException {
+        try (FileChannel channel = FileChannel.open(new File(this.directory, LOCK).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock(0, Long.MAX_VALUE, shared);
+            try {
+                return action.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    //copies a cached entry into outputDirectory, replacing what was there
+    public boolean restore(String key, File outputDirectory) throws IOException {
+        boolean hit = withLock(true, () -> copyEntry(getEntry(key), outputDirectory));
+        updateStats(hit);
+        return hit;
+    }
+
+    private static boolean copyEntry(File entry, File outputDirectory) throws IOException {
+        File[] files = entry.listFiles();
+        if (files == null)
+            return false;
+        File[] oldFiles = outputDirectory.listFiles();
+        if (oldFiles != null)
+            for (File file : oldFiles)
+                file.delete();
+        outputDirectory.mkdirs();
+        for (File file : files)
+            Files.copy(file.toPath(), new File(outputDirectory, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        entry.setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+    public void store(String key, File outputDirectory) throws IOException {
+        File entry = getEntry(key);
+        if (entry.exists())
+            return;
+        File temporaryEntry = Files.createTempDirectory(new File(this.directory, ENTRIES).toPath(), TEMPORARY_PREFIX).toFile();
+        File[] files = outputDirectory.listFiles((dir, name) -> name.endsWith(".class") || (this.jasminFilesCached && name.endsWith(".j")));
+        if (files != null)
+            for (File file : files)
+                Files.copy(file.toPath(), new File(temporaryEntry, file.getName()).toPath());
+        try {
+            Files.move(temporaryEntry.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            //another compile stored the same entry first
+            deleteEntry(temporaryEntry);
+            return;
+        }
+        evict();
+    }
+
+    private static void deleteEntry(File entry) {
+        File[] files = entry.listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+        entry.delete();
+    }
+
+    private static long getSize(File entry) {
+        long size = 0;
+        File[] files = entry.listFiles();
+        if (files != null)
+            for (File file : files)
+                size += file.length();
+        return size;
+    }
+
+    //an entry is renamed before its files are deleted, so an eviction that stops half way never leaves a partial
+    //entry under its key. the renamed ones it leaves are deleted by the next eviction
+    private static boolean evictEntry(File entry) {
+        File evictedEntry = new File(entry.getParentFile(), EVICTED_PREFIX + entry.getName());
+        try {
+            Files.move(entry.toPath(), evictedEntry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            return false;
+        }
+        deleteEntry(evictedEntry);
+        return true;
+    }
+
+    private void evict() throws IOException {
+        withLock(false, () -> {
+            File entriesDirectory = new File(this.directory, ENTRIES);
+            File[] evictedEntries = entriesDirectory.listFiles(file -> file.isDirectory() && file.getName().startsWith(EVICTED_PREFIX));
+            if (evictedEntries != null)
+                for (File evictedEntry : evictedEntries)
+                    deleteEntry(evictedEntry);
+            File[] entries = entriesDirectory.listFiles(file -> file.isDirectory() && !file.getName().startsWith(TEMPORARY_PREFIX));
+            if (entries == null)
+                return null;
+            ArrayList<File> byLastUse = new ArrayList<>(Arrays.asList(entries));
+            byLastUse.sort(Comparator.comparingLong(File::lastModified));
+            long totalSize = 0;
+            for (File entry : byLastUse)
+                totalSize += getSize(entry);
+            int evicted = 0;
+            for (int i = 0; i < byLastUse.size() && totalSize > this.maxBytes; i++) {
+                long size = getSize(byLastUse.get(i));
+                if (evictEntry(byLastUse.get(i))) {
+                    totalSize -= size;
+                    evicted++;
+                }
+            }
+            long[] stats = readStats();
+            stats[2] += evicted;
+            writeStats(stats);
+            return null;
+        });
+    }
+
+    private void updateStats(boolean hit) throws IOException {
+        withLock(false, () -> {
+            long[] stats = readStats();
+            stats[hit ? 0 : 1]++;
+            writeStats(stats);
+            return null;
+        });
+    }
+
+    //hits, misses and evictions over every compile that used this directory
+    public long[] readStats() {
+        long[] stats = new long[3];
+        try (BufferedReader reader = new BufferedReader(new FileReader(new File(this.directory, STATS)))) {
+            for (int i = 0; i < stats.length; i++)
+                stats[i] = Long.parseLong(reader.readLine().split(" ")[1]);
+        } catch (IOException | RuntimeException e) {
+            return new long[3];
+        }
+        return stats;
+    }
+
+    private void writeStats(long[] stats) throws IOException {
+        File temporaryFile = new File(this.directory, STATS + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new FileWriter(temporaryFile))) {
+            writer.println("hits " + stats[0]);
+            writer.println("misses " + stats[1]);
+            writer.println("evictions " + stats[2]);
+        }
+        Files.move(temporaryFile.toPath(), new File(this.directory, STATS).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,344 @@
+package main;
+
+import java.util.ArrayList;
+
+public class CompilerOptions {
+    private String inputFileName;
+    private ArrayList<String> inputFileNames = new ArrayList<>();
+    private String outputDirectory = "output/";
+    private boolean inliningEnabled = true;
+    private boolean inliningReportEnabled = false;
+    private boolean offHeapListsEnabled = false;
+    private int offHeapListThreshold = 1 << 16;
+    private boolean inProcessExecutionEnabled = false;
+    private boolean budgetChecksEnabled = false;
+    private boolean profilingEnabled = false;
+    private boolean serviceEnabled = false;
+    private boolean interpreterEnabled = false;
+    private boolean incrementalEnabled = false;
+    private String cacheDirectory;
+    private long cacheSizeMegabytes = 512;
+    private boolean jasminCacheEnabled = false;
+    private String astCacheDirectory;
+    private boolean streamingFrontEndEnabled = false;
+    private int maxErrors = 0;
+    private int tierUpThreshold = 1000;
+    private boolean specializedListsEnabled = true;
+    private boolean allocationConstructorsEnabled = false;
+    private int serviceThreads = Runtime.getRuntime().availableProcessors();
+    private long cpuBudgetMillis = 10000;
+    private long allocationBudgetMegabytes = 256;
+    private int outputBudgetKilobytes = 64;
+
+    public static CompilerOptions parse(String[] args) {
+        CompilerOptions options = new CompilerOptions();
+        for (String arg : args) {
+            if (arg.equals("--no-inline"))
+                options.setInliningEnabled(false);
+            else if (arg.equals("--inline-report"))
+                options.setInliningReportEnabled(true);
+            else if (arg.equals("--in-process"))
+                options.setInProcessExecutionEnabled(true);
+            else if (arg.equals("--off-heap-lists"))
+                options.setOffHeapListsEnabled(true);
+            else if (arg.startsWith("--off-heap-threshold=")) {
+                options.setOffHeapListThreshold(parseIntOption(arg));
+                options.setOffHeapListsEnabled(true);
+            }
+            else if (arg.equals("--profile"))
+                options.setProfilingEnabled(true);
+            else if (arg.equals("--incremental"))
+                options.setIncrementalEnabled(true);
+            else if (arg.startsWith("--cache-dir="))
+                options.setCacheDirectory(arg.substring(arg.indexOf('=') + 1));
+            else if (arg.startsWith("--cache-size-mb="))
+                options.setCacheSizeMegabytes(parseIntOption(arg));
+            else if (arg.equals("--cache-jasmin"))
+                options.setJasminCacheEnabled(true);
+            else if (arg.startsWith("--ast-cache="))
+                options.setAstCacheDirectory(arg.substring(arg.indexOf('=') + 1));
+            else if (arg.equals("--stream"))
+                options.setStreamingFrontEndEnabled(true);
+            else if (arg.startsWith("--max-errors="))
+                options.setMaxErrors(parseIntOption(arg));
+            else if (arg.equals("--fail-fast"))
+                options.setMaxErrors(1);
+            else if (arg.equals("--interpret"))
+                options.setInterpreterEnabled(true);
+            else if (arg.startsWith("--tier-up-threshold="))
+                options.setTierUpThreshold(parseIntOption(arg));
+            else if (arg.equals("--service"))
+                options.setServiceEnabled(true);
+            else if (arg.startsWith("--service-threads="))
+                options.setServiceThreads(parseIntOption(arg));
+            else if (arg.startsWith("--cpu-budget-ms="))
+                options.setCpuBudgetMillis(parseIntOption(arg));
+            else if (arg.startsWith("--allocation-budget-mb="))
+                options.setAllocationBudgetMegabytes(parseIntOption(arg));
+            else if (arg.startsWith("--output-budget-kb="))
+                options.setOutputBudgetKilobytes(parseIntOption(arg));
+            else if (arg.startsWith("--")) {
+                System.out.println("Unknown option " + arg);
+                System.exit(1);
+            }
+            else {
+                options.setInputFileName(arg);
+                options.getInputFileNames().add(arg);
+            }
+        }
+        return options;
+    }
+
+    private static int parseIntOption(String arg) {
+        try {
+            return Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid option " + arg);
+            System.exit(1);
+            return 0;
+        }
+    }
+
+    public CompilerOptions copy() {
+        CompilerOptions options = new CompilerOptions();
+        options.inputFileName = this.inputFileName;
+        options.inputFileNames = new ArrayList<>(this.inputFileNames);
+        options.outputDirectory = this.outputDirectory;
+        options.inliningEnabled = this.inliningEnabled;
+        options.inliningReportEnabled = this.inliningReportEnabled;
+        options.offHeapListsEnabled = this.offHeapListsEnabled;
+        options.offHeapListThreshold = this.offHeapListThreshold;
+        options.inProcessExecutionEnabled = this.inProcessExecutionEnabled;
+        options.budgetChecksEnabled = this.budgetChecksEnabled;
+        options.profilingEnabled = this.profilingEnabled;
+        options.serviceEnabled = this.serviceEnabled;
+        options.interpreterEnabled = this.interpreterEnabled;
+        options.incrementalEnabled = this.incrementalEnabled;
+        options.cacheDirectory = this.cacheDirectory;
+        options.cacheSizeMegabytes = this.cacheSizeMegabytes;
+        options.jasminCacheEnabled = this.jasminCacheEnabled;
+        options.astCacheDirectory = this.astCacheDirectory;
+        options.streamingFrontEndEnabled = this.streamingFrontEndEnabled;
+        options.maxErrors = this.maxErrors;
+        options.tierUpThreshold = this.tierUpThreshold;
+        options.specializedListsEnabled = this.specializedListsEnabled;
+        options.allocationConstructorsEnabled = this.allocationConstructorsEnabled;
+        options.serviceThreads = this.serviceThreads;
+        options.cpuBudgetMillis = this.cpuBudgetMillis;
+        options.allocationBudgetMegabytes = this.allocationBudgetMegabytes;
+        options.outputBudgetKilobytes = this.outputBudgetKilobytes;
+        return options;
+    }
+
+    //the options that change the generated code, so outputs from different settings are never mixed
+    public String getCodeGenerationKey() {
+        return "inline=" + this.inliningEnabled + ",offHeap=" + this.offHeapListsEnabled + ":" + this.offHeapListThreshold
+                + ",budget=" + this.budgetChecksEnabled + ",profile=" + this.profilingEnabled
+                + ",specializedLists=" + this.specializedListsEnabled
+                + ",allocationConstructors=" + this.allocationConstructorsEnabled;
+    }
+
+    public String getInputFileName() {
+        return inputFileName;
+    }
+
+    public void setInputFileName(String inputFileName) {
+        this.inputFileName = inputFileName;
+    }
+
+    public ArrayList<String> getInputFileNames() {
+        return inputFileNames;
+    }
+
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(String outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    public boolean isInliningEnabled() {
+        return inliningEnabled;
+    }
+
+    public void setInliningEnabled(boolean inliningEnabled) {
+        this.inliningEnabled = inliningEnabled;
+    }
+
+    public boolean isInliningReportEnabled() {
+        return inliningReportEnabled;
+    }
+
+    public void setInliningReportEnabled(boolean inliningReportEnabled) {
+        this.inliningReportEnabled = inliningReportEnabled;
+    }
+
+    public boolean isOffHeapListsEnabled() {
+        return offHeapListsEnabled;
+    }
+
+    public void setOffHeapListsEnabled(boolean offHeapListsEnabled) {
+        this.offHeapListsEnabled = offHeapListsEnabled;
+    }
+
+    public int getOffHeapListThreshold() {
+        return offHeapListThreshold;
+    }
+
+    public void setOffHeapListThreshold(int offHeapListThreshold) {
+        this.offHeapListThreshold = offHeapListThreshold;
+    }
+
+    public boolean isInProcessExecutionEnabled() {
+        return inProcessExecutionEnabled;
+    }
+
+    public void setInProcessExecutionEnabled(boolean inProcessExecutionEnabled) {
+        this.inProcessExecutionEnabled = inProcessExecutionEnabled;
+    }
+
+    public boolean isBudgetChecksEnabled() {
+        return budgetChecksEnabled;
+    }
+
+    public void setBudgetChecksEnabled(boolean budgetChecksEnabled) {
+        this.budgetChecksEnabled = budgetChecksEnabled;
+    }
+
+    public boolean isProfilingEnabled() {
+        return profilingEnabled;
+    }
+
+    public void setProfilingEnabled(boolean profilingEnabled) {
+        this.profilingEnabled = profilingEnabled;
+    }
+
+    public boolean isServiceEnabled() {
+        return serviceEnabled;
+    }
+
+    public void setServiceEnabled(boolean serviceEnabled) {
+        this.serviceEnabled = serviceEnabled;
+    }
+
+    public boolean isInterpreterEnabled() {
+        return interpreterEnabled;
+    }
+
+    public void setInterpreterEnabled(boolean interpreterEnabled) {
+        this.interpreterEnabled = interpreterEnabled;
+    }
+
+    public boolean isIncrementalEnabled() {
+        return incrementalEnabled;
+    }
+
+    public void setIncrementalEnabled(boolean incrementalEnabled) {
+        this.incrementalEnabled = incrementalEnabled;
+    }
+
+    public String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public long getCacheSizeMegabytes() {
+        return cacheSizeMegabytes;
+    }
+
+    public void setCacheSizeMegabytes(long cacheSizeMegabytes) {
+        this.cacheSizeMegabytes = cacheSizeMegabytes;
+    }
+
+    public boolean isJasminCacheEnabled() {
+        return jasminCacheEnabled;
+    }
+
+    public void setJasminCacheEnabled(boolean jasminCacheEnabled) {
+        this.jasminCacheEnabled = jasminCacheEnabled;
+    }
+
+    public String getAstCacheDirectory() {
+        return astCacheDirectory;
+    }
+
+    public void setAstCacheDirectory(String astCacheDirectory) {
+        this.astCacheDirectory = astCacheDirectory;
+    }
+
+    public boolean isStreamingFrontEndEnabled() {
+        return streamingFrontEndEnabled;
+    }
+
+    public void setStreamingFrontEndEnabled(boolean streamingFrontEndEnabled) {
+        this.streamingFrontEndEnabled = streamingFrontEndEnabled;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public int getTierUpThreshold() {
+        return tierUpThreshold;
+    }
+
+    public void setTierUpThreshold(int tierUpThreshold) {
+        this.tierUpThreshold = tierUpThreshold;
+    }
+
+    public boolean isSpecializedListsEnabled() {
+        return specializedListsEnabled;
+    }
+
+    public void setSpecializedListsEnabled(boolean specializedListsEnabled) {
+        this.specializedListsEnabled = specializedListsEnabled;
+    }
+
+    public boolean isAllocationConstructorsEnabled() {
+        return allocationConstructorsEnabled;
+    }
+
+    public void setAllocationConstructorsEnabled(boolean allocationConstructorsEnabled) {
+        this.allocationConstructorsEnabled = allocationConstructorsEnabled;
+    }
+
+    public int getServiceThreads() {
+        return serviceThreads;
+    }
+
+    public void setServiceThreads(int serviceThreads) {
+        this.serviceThreads = serviceThreads;
+    }
+
+    public long getCpuBudgetMillis() {
+        return cpuBudgetMillis;
+    }
+
+    public void setCpuBudgetMillis(long cpuBudgetMillis) {
+        this.cpuBudgetMillis = cpuBudgetMillis;
+    }
+
+    public long getAllocationBudgetMegabytes() {
+        return allocationBudgetMegabytes;
+    }
+
+    public void setAllocationBudgetMegabytes(long allocationBudgetMegabytes) {
+        this.allocationBudgetMegabytes = allocationBudgetMegabytes;
+    }
+
+    public int getOutputBudgetKilobytes() {
+        return outputBudgetKilobytes;
+    }
+
+    public void setOutputBudgetKilobytes(int outputBudgetKilobytes) {
+        this.outputBudgetKilobytes = outputBudgetKilobytes;
+    }
+}
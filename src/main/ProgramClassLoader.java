@@ -0,0 +1,42 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+//loads the generated classes and their runtime from the output folder or from assembled bytes only,
+//so programs do not see the compiler's own classes
+public class ProgramClassLoader extends ClassLoader {
+    private final File directory;
+    private final Map<String, byte[]> classes;
+
+    public ProgramClassLoader(File directory) {
+        super(ClassLoader.getPlatformClassLoader());
+        this.directory = directory;
+        this.classes = null;
+    }
+
+    public ProgramClassLoader(Map<String, byte[]> classes) {
+        super(ClassLoader.getPlatformClassLoader());
+        this.directory = null;
+        this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        if (this.classes != null) {
+            byte[] bytes = this.classes.get(name);
+            if (bytes == null)
+                throw new ClassNotFoundException(name);
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+        File classFile = new File(this.directory, name.replace('.', '/') + ".class");
+        try {
+            byte[] bytes = Files.readAllBytes(classFile.toPath());
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+}
@@ -1,14 +1,58 @@
 package main;
 
+import main.frontEnd.MappedCharStream;
+import main.service.ProgramResult;
+import main.service.SophiaService;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class Sophia {
-    public static void main(String[] args) throws IOException {
-        CharStream reader = CharStreams.fromFileName(args[0]);
-        SophiaCompiler sophiaCompiler = new SophiaCompiler();
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        CompilerOptions options = CompilerOptions.parse(args);
+        if (options.isServiceEnabled()) {
+            serve(options);
+            return;
+        }
+        CharStream reader = open(options.getInputFileName(), options);
+        SophiaCompiler sophiaCompiler = new SophiaCompiler(options);
         sophiaCompiler.compile(reader);
     }
+
+    private static CharStream open(String fileName, CompilerOptions options) throws IOException {
+        if (options.isStreamingFrontEndEnabled())
+            return MappedCharStream.open(fileName);
+        return CharStreams.fromFileName(fileName);
+    }
+
+    private static void serve(CompilerOptions options) throws IOException, InterruptedException, ExecutionException {
+        SophiaService sophiaService = new SophiaService(options);
+        try {
+            ArrayList<Future<ProgramResult>> results = new ArrayList<>();
+            for (String inputFileName : options.getInputFileNames()) {
+                try {
+                    results.add(sophiaService.submit(inputFileName, open(inputFileName, options)));
+                } catch (IOException e) {
+                    //an unreadable input is that program's error, the rest of the batch still runs
+                    results.add(CompletableFuture.completedFuture(new ProgramResult(inputFileName, "", false, e.toString())));
+                }
+            }
+            for (Future<ProgramResult> future : results) {
+                ProgramResult result = future.get();
+                System.out.println("\n----------------------" + result.getName() + "----------------------");
+                System.out.print(result.getOutput());
+                if (result.isOutputTruncated())
+                    System.out.println("\nOutput truncated");
+                if (!result.isSuccessful())
+                    System.out.println("\nError: " + result.getError());
+            }
+        } finally {
+            sophiaService.shutdown();
+        }
+    }
 }
@@ -1,57 +1,363 @@
 package main;
 
+import main.ast.binary.AstCache;
 import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.compileErrorException.CompileErrorException;
+import main.frontEnd.StreamingTokenStream;
+import main.interpreter.Interpreter;
+import main.symbolTable.utils.graph.Graph;
+import main.symbolTable.utils.interner.NameInterner;
+import main.visitor.Pass;
+import main.visitor.PassManager;
 import main.visitor.codeGenerator.CodeGenerator;
 import main.visitor.nameAnalyzer.NameAnalyzer;
 import main.visitor.typeChecker.TypeChecker;
 import main.visitor.utils.ASTTreePrinter;
-import main.visitor.utils.ErrorReporter;
+import main.visitor.utils.ClassDependencyCollector;
+import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.misc.Interval;
 import parsers.SophiaLexer;
 import parsers.SophiaParser;
 
 import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.util.*;
 
 public class SophiaCompiler {
+    private final CompilerOptions options;
+    private Graph<String> classHierarchy;
+    private BuildManifest manifest;
+    private String codeGenerationKey;
+    private LinkedHashMap<String, String> classHashes;
+    private Set<String> dirtyClasses;
+    private Set<String> movedClasses;
+
+    public SophiaCompiler() {
+        this(new CompilerOptions());
+    }
+
+    public SophiaCompiler(CompilerOptions options) {
+        this.options = options;
+    }
+
     public void compile(CharStream textStream) {
-        System.out.println("\n--------------------------Compiling--------------------------");
+        if(this.options.isInterpreterEnabled()) {
+            interpret(textStream);
+            return;
+        }
+        if(this.options.getCacheDirectory() != null) {
+            compileCached(textStream);
+            return;
+        }
+        if(!generateCode(textStream))
+            System.exit(1);
+        runJasminFiles();
+    }
+
+    //a hit restores the class files of an identical earlier compile and skips the front end and jasmin
+    private void compileCached(CharStream textStream) {
+        CompilationCache cache = new CompilationCache(new File(this.options.getCacheDirectory()),
+                this.options.getCacheSizeMegabytes() * 1024 * 1024, this.options.isJasminCacheEnabled());
+        String key = CompilationCache.getKey(textStream.getText(Interval.of(0, textStream.size() - 1)),
+                this.options.getCodeGenerationKey() + ",source=" + getSourceFileName(textStream) + ",jasmin=" + this.options.isJasminCacheEnabled());
+        File dir = new File(this.options.getOutputDirectory());
+        boolean hit = false;
+        try {
+            hit = cache.restore(key, dir);
+        } catch (IOException e) {
+            System.out.println("Cannot read the compilation cache: " + e.getMessage());
+        }
+        if(hit) {
+            System.out.println("\n--------------------------Compiling--------------------------");
+            System.out.println("Compilation successful");
+        }
+        else {
+            if(!generateCode(textStream))
+                System.exit(1);
+            if(assembleJasminFiles(dir)) {
+                try {
+                    cache.store(key, dir);
+                } catch (IOException e) {
+                    System.out.println("Cannot write the compilation cache: " + e.getMessage());
+                }
+            }
+        }
+        long[] stats = cache.readStats();
+        System.out.println("\nCompilation cache " + (hit ? "hit" : "miss") + " (" + stats[0] + " hits, " + stats[1] + " misses, "
+                + stats[2] + " evictions)");
+        runProgram(dir);
+    }
+
+    //a source that parsed without syntax errors before is read back from the tree cache instead of parsed again
+    private Program parse(CharStream textStream) {
+        //every compile starts from no names, so a long running service does not keep the names of old programs
+        NameInterner.clear();
+        AstCache astCache = null;
+        byte[] sourceHash = null;
+        if(this.options.getAstCacheDirectory() != null) {
+            astCache = new AstCache(new File(this.options.getAstCacheDirectory()));
+            sourceHash = AstCache.hash(textStream.getText(Interval.of(0, textStream.size() - 1)));
+            Program program = astCache.load(sourceHash);
+            if(program != null)
+                return program;
+        }
         SophiaLexer sophiaLexer = new SophiaLexer(textStream);
-        CommonTokenStream tokenStream = new CommonTokenStream(sophiaLexer);
-        SophiaParser sophiaParser = new SophiaParser(tokenStream);
+        int[] lexerErrors = new int[1];
+        sophiaLexer.addErrorListener(new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+                lexerErrors[0]++;
+            }
+        });
+        SophiaParser sophiaParser;
+        if(this.options.isStreamingFrontEndEnabled()) {
+            //the tree is built by the grammar actions, so neither the tokens nor the parse tree are kept
+            sophiaParser = new SophiaParser(new StreamingTokenStream(sophiaLexer));
+            sophiaParser.setBuildParseTree(false);
+        }
+        else
+            sophiaParser = new SophiaParser(new CommonTokenStream(sophiaLexer));
         Program program = sophiaParser.sophia().sophiaProgram;
-        ErrorReporter errorReporter = new ErrorReporter();
+        if(astCache != null && lexerErrors[0] == 0 && sophiaParser.getNumberOfSyntaxErrors() == 0) {
+            try {
+                astCache.store(program, sourceHash);
+            } catch (IOException e) {
+                System.out.println("Cannot write the tree cache: " + e.getMessage());
+            }
+        }
+        return program;
+    }
+
+    //name and type checking run as passes, so the name checks and the type checks of a class share one loop
+    private Program analyze(CharStream textStream, boolean incremental) {
+        Program program = parse(textStream);
+        PassManager passManager = new PassManager(this.options.getMaxErrors());
         NameAnalyzer nameAnalyzer = new NameAnalyzer(program);
-        nameAnalyzer.analyze();
-        int numberOfErrors = program.accept(errorReporter);
-        if(numberOfErrors > 0) {
-            System.out.println("\n" + numberOfErrors + " errors detected");
-            System.exit(1);
+        nameAnalyzer.addPasses(passManager);
+        TypeChecker typeChecker = new TypeChecker(nameAnalyzer.getClassHierarchy());
+        if(incremental) {
+            passManager.add(new Pass() {
+                @Override
+                public String getName() {
+                    return "incremental.dirtyClasses";
+                }
+
+                @Override
+                public List<String> getDependencies() {
+                    return Collections.singletonList(NameAnalyzer.PASS_NAME);
+                }
+
+                @Override
+                public void begin(Program program) {
+                    typeChecker.setCheckedClasses(findDirtyClasses(program, nameAnalyzer.getClassHierarchy(), getSourceFileName(textStream)));
+                }
+            });
+        }
+        passManager.add(typeChecker);
+        passManager.run(program);
+        if(passManager.hasErrors()) {
+            List<CompileErrorException> errors = passManager.getErrors();
+            for(CompileErrorException compileErrorException : errors)
+                System.out.println(compileErrorException.getMessage());
+            if(passManager.isLimitReached())
+                System.out.println("\nStopped at the error limit");
+            System.out.println("\n" + errors.size() + " errors detected");
+            return null;
         }
 //        ASTTreePrinter astTreePrinter = new ASTTreePrinter();
 //        program.accept(astTreePrinter);
-        TypeChecker typeChecker = new TypeChecker(nameAnalyzer.getClassHierarchy());
-        program.accept(typeChecker);
-        numberOfErrors = program.accept(errorReporter);
-        if(numberOfErrors > 0) {
-            System.out.println("\n" + numberOfErrors + " errors detected");
+        this.classHierarchy = nameAnalyzer.getClassHierarchy();
+        return program;
+    }
+
+    //runs the program right after type checking; methods that get hot are handed to code generated in the background
+    private void interpret(CharStream textStream) {
+        System.out.println("\n--------------------------Compiling--------------------------");
+        Program program = analyze(textStream, false);
+        if(program == null)
             System.exit(1);
+        System.out.println("Compilation successful");
+        System.out.println("\n---------------------------Output---------------------------");
+        Interpreter interpreter = new Interpreter(program, this.classHierarchy, this.options);
+        try {
+            interpreter.run();
+        } catch (RuntimeException | StackOverflowError e) {
+            System.out.flush();
+            System.err.print("Exception in thread \"main\" ");
+            e.printStackTrace();
+        } finally {
+            interpreter.shutdown();
+            System.out.flush();
         }
-        CodeGenerator codeGenerator = new CodeGenerator(nameAnalyzer.getClassHierarchy());
+    }
+
+    public boolean generateCode(CharStream textStream) {
+        System.out.println("\n--------------------------Compiling--------------------------");
+        boolean incremental = this.options.isIncrementalEnabled() && !this.options.isProfilingEnabled();
+        Program program = analyze(textStream, incremental);
+        if(program == null)
+            return false;
+        Set<String> emittedClasses = incremental && !this.manifest.getClasses().isEmpty() ? this.dirtyClasses : null;
+        CodeGenerator codeGenerator = new CodeGenerator(this.classHierarchy, this.options, emittedClasses);
+        if(emittedClasses != null)
+            codeGenerator.setTupleClassNames(this.manifest.getTupleClassNames());
+        if(getSourceFileName(textStream) != null)
+            codeGenerator.setSourceFileName(getSourceFileName(textStream));
         program.accept(codeGenerator);
         System.out.println("Compilation successful");
-        runJasminFiles();
+        if(incremental) {
+            System.out.println(this.dirtyClasses.size() + " of " + program.getClasses().size() + " classes generated");
+            if(!this.movedClasses.isEmpty())
+                System.out.println(this.movedClasses.size() + " moved classes renumbered");
+            updateManifest(program, codeGenerator);
+        }
+        if(this.options.isInliningReportEnabled()) {
+            System.out.println("\n----------------------Inlining Report----------------------");
+            for(String line : codeGenerator.getInliningReport())
+                System.out.println(line);
+        }
+        return true;
+    }
+
+    private static String getSourceFileName(CharStream textStream) {
+        if(textStream.getSourceName().equals(IntStream.UNKNOWN_SOURCE_NAME))
+            return null;
+        return new File(textStream.getSourceName()).getName();
+    }
+
+    //a class is checked and generated again when its own tree changed or when anything it depends on did;
+    //other classes keep the output of the last build
+    private Set<String> findDirtyClasses(Program program, Graph<String> classHierarchy, String sourceFileName) {
+        this.manifest = BuildManifest.load(new File(this.options.getOutputDirectory(), BuildManifest.FILE_NAME));
+        this.codeGenerationKey = this.options.getCodeGenerationKey() + ",source=" + sourceFileName;
+        if(!this.manifest.getCodeGenerationKey().equals(this.codeGenerationKey))
+            this.manifest = new BuildManifest();
+        ClassDependencyCollector collector = new ClassDependencyCollector(program, classHierarchy);
+        HashMap<String, ClassDeclaration> classes = new HashMap<>();
+        this.classHashes = new LinkedHashMap<>();
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            classes.put(classDeclaration.getClassName().getName(), classDeclaration);
+            this.classHashes.put(classDeclaration.getClassName().getName(), collector.getFingerprint(classDeclaration));
+        }
+        HashMap<String, Collection<String>> ancestors = new HashMap<>();
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            ArrayList<String> classAncestors = new ArrayList<>();
+            ClassDeclaration current = classDeclaration;
+            while(current.getParentClassName() != null && !classAncestors.contains(current.getParentClassName().getName())) {
+                classAncestors.add(current.getParentClassName().getName());
+                current = classes.get(current.getParentClassName().getName());
+                if(current == null)
+                    break;
+            }
+            ancestors.put(classDeclaration.getClassName().getName(), classAncestors);
+        }
+        this.dirtyClasses = this.manifest.getDirtyClasses(this.classHashes, ancestors);
+        this.movedClasses = new HashSet<>();
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            String className = classDeclaration.getClassName().getName();
+            if(!this.dirtyClasses.contains(className) && this.manifest.getClasses().get(className).getLine() != classDeclaration.getLine())
+                this.movedClasses.add(className);
+        }
+        return this.dirtyClasses;
+    }
+
+    //a class that only moved up or down the file keeps its code, since its hash uses lines relative to its first
+    //line, so only the .line directives of its jasmin file are shifted. false when the file cannot be rewritten
+    private boolean renumberLines(String className, int delta) {
+        File jasminFile = new File(this.options.getOutputDirectory(), className + ".j");
+        try {
+            List<String> lines = Files.readAllLines(jasminFile.toPath());
+            for(int i = 0; i < lines.size(); i++)
+                if(lines.get(i).startsWith(".line "))
+                    lines.set(i, ".line " + (Integer.parseInt(lines.get(i).substring(6).trim()) + delta));
+            Files.write(jasminFile.toPath(), lines);
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Cannot renumber " + jasminFile.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void updateManifest(Program program, CodeGenerator codeGenerator) {
+        BuildManifest updated = new BuildManifest();
+        updated.setCodeGenerationKey(this.codeGenerationKey);
+        ClassDependencyCollector collector = new ClassDependencyCollector(program, this.classHierarchy);
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            String className = classDeclaration.getClassName().getName();
+            BuildManifest.ClassEntry classEntry = this.manifest.getClasses().get(className);
+            if(this.dirtyClasses.contains(className))
+                updated.getClasses().put(className, new BuildManifest.ClassEntry(this.classHashes.get(className), classDeclaration.getLine(),
+                        collector.getDependencies(classDeclaration), new ArrayList<>(Arrays.asList(className + ".j", className + ".class"))));
+            else if(this.movedClasses.contains(className) && renumberLines(className, classDeclaration.getLine() - classEntry.getLine()))
+                updated.getClasses().put(className, new BuildManifest.ClassEntry(classEntry.getHash(), classDeclaration.getLine(),
+                        classEntry.getDependencies(), classEntry.getArtifacts()));
+            else
+                updated.getClasses().put(className, classEntry);
+        }
+        for(Map.Entry<String, BuildManifest.ClassEntry> entry : this.manifest.getClasses().entrySet())
+            if(!updated.getClasses().containsKey(entry.getKey()))
+                for(String artifact : entry.getValue().getArtifacts())
+                    new File(this.options.getOutputDirectory(), artifact).delete();
+        updated.getTupleClassNames().putAll(codeGenerator.getTupleClassNames());
+        try {
+            updated.save(new File(this.options.getOutputDirectory(), BuildManifest.FILE_NAME));
+        } catch (IOException e) {
+            //the old manifest no longer matches the renumbered jasmin files, so the next build starts over
+            System.out.println("Cannot write " + BuildManifest.FILE_NAME + ": " + e.getMessage());
+            new File(this.options.getOutputDirectory(), BuildManifest.FILE_NAME).delete();
+        }
     }
 
     private void runJasminFiles() {
+        File dir = new File(this.options.getOutputDirectory());
+        assembleJasminFiles(dir);
+        runProgram(dir);
+    }
+
+    //jasmin exits with 0 even when a file does not assemble, so it succeeded when every file has its class file
+    private boolean assembleJasminFiles(File dir) {
         try {
             System.out.println("\n-------------------Generating Class Files-------------------");
-            File dir = new File("./output");
-            Process process = Runtime.getRuntime().exec("java -jar jasmin.jar *.j", null, dir);
-            printResults(process.getInputStream());
-            printResults(process.getErrorStream());
+            ArrayList<String> jasminCommand = new ArrayList<>(Arrays.asList("java", "-jar", "jasmin.jar"));
+            String[] jasminFiles = dir.list((directory, name) -> name.endsWith(".j") && !isAssembled(directory, name));
+            if(jasminFiles == null)
+                return false;
+            jasminCommand.addAll(Arrays.asList(jasminFiles));
+            if(jasminFiles.length > 0) {
+                Process process = Runtime.getRuntime().exec(jasminCommand.toArray(new String[0]), null, dir);
+                printResults(process.getInputStream());
+                printResults(process.getErrorStream());
+                if(process.waitFor() != 0)
+                    return false;
+            }
+            for(String jasminFile : jasminFiles)
+                if(!hasClassFile(dir, jasminFile))
+                    return false;
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runProgram(File dir) {
+        try {
             System.out.println("\n---------------------------Output---------------------------");
-            process = Runtime.getRuntime().exec("java Main", null, dir);
+            if(this.options.isInProcessExecutionEnabled()) {
+                runInProcess(dir);
+                return;
+            }
+            Process process = Runtime.getRuntime().exec("java Main", null, dir);
             printResults(process.getInputStream());
             printResults(process.getErrorStream());
         } catch (IOException e) {
@@ -59,6 +365,30 @@ public class SophiaCompiler {
         }
     }
 
+    private static boolean hasClassFile(File directory, String jasminFileName) {
+        File classFile = new File(directory, jasminFileName.substring(0, jasminFileName.length() - 2) + ".class");
+        return classFile.lastModified() >= new File(directory, jasminFileName).lastModified();
+    }
+
+    //incremental builds keep class files that are newer than their jasmin file
+    private boolean isAssembled(File directory, String jasminFileName) {
+        return this.options.isIncrementalEnabled() && hasClassFile(directory, jasminFileName);
+    }
+
+    private void runInProcess(File dir) {
+        try {
+            Class<?> mainClass = new ProgramClassLoader(dir).loadClass("Main");
+            mainClass.getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+        } catch (InvocationTargetException e) {
+            System.out.flush();
+            System.err.print("Exception in thread \"main\" ");
+            e.getCause().printStackTrace();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            e.printStackTrace();
+        }
+        System.out.flush();
+    }
+
     private void printResults(InputStream stream) {
         BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
         String line;
@@ -0,0 +1,70 @@
+package main.ast.binary;
+
+import main.ast.nodes.Program;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+//parsed trees of sources that had no syntax errors, one file per source named by its hash. a tree is written
+//before name analysis, so it never holds errors or anything the later passes fill in
+public class AstCache {
+    private static final String EXTENSION = ".ast";
+
+    private final File directory;
+
+    public AstCache(File directory) {
+        this.directory = directory;
+        directory.mkdirs();
+    }
+
+    public static byte[] hash(String sourceText) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(sourceText.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private File getFile(byte[] sourceHash) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : sourceHash)
+            name.append(String.format("%02x", b));
+        return new File(this.directory, name.append(EXTENSION).toString());
+    }
+
+    //null when there is no usable tree for this source
+    public Program load(byte[] sourceHash) {
+        File file = getFile(sourceHash);
+        if (!file.isFile())
+            return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryAstReader(buffer).read(sourceHash);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void store(Program program, byte[] sourceHash) throws IOException {
+        File file = getFile(sourceHash);
+        File temporaryFile = File.createTempFile(".tmp-", EXTENSION, this.directory);
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(temporaryFile))) {
+            new BinaryAstWriter().write(program, sourceHash, outputStream);
+        } catch (IOException e) {
+            temporaryFile.delete();
+            throw e;
+        }
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
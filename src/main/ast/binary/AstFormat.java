@@ -0,0 +1,55 @@
+package main.ast.binary;
+
+//layout of a serialized tree: MAGIC, VERSION, the 32 byte hash of the source, the string table
+//(count, then length and utf-8 bytes of each string) and the nodes in preorder. every node is its tag and
+//line followed by its fields; names and constants are string table indices and counts and ints are varints
+public final class AstFormat {
+    public static final int MAGIC = 0x53415354;
+    public static final int VERSION = 1;
+    public static final int HASH_LENGTH = 32;
+
+    public static final byte NULL = 0;
+    public static final byte PROGRAM = 1;
+    public static final byte CLASS_DECLARATION = 2;
+    public static final byte CONSTRUCTOR_DECLARATION = 3;
+    public static final byte METHOD_DECLARATION = 4;
+    public static final byte FIELD_DECLARATION = 5;
+    public static final byte VAR_DECLARATION = 6;
+    public static final byte ASSIGNMENT_STMT = 7;
+    public static final byte BLOCK_STMT = 8;
+    public static final byte CONDITIONAL_STMT = 9;
+    public static final byte METHOD_CALL_STMT = 10;
+    public static final byte PRINT_STMT = 11;
+    public static final byte RETURN_STMT = 12;
+    public static final byte BREAK_STMT = 13;
+    public static final byte CONTINUE_STMT = 14;
+    public static final byte FOREACH_STMT = 15;
+    public static final byte FOR_STMT = 16;
+    public static final byte BINARY_EXPRESSION = 17;
+    public static final byte UNARY_EXPRESSION = 18;
+    public static final byte OBJECT_OR_LIST_MEMBER_ACCESS = 19;
+    public static final byte IDENTIFIER = 20;
+    public static final byte LIST_ACCESS_BY_INDEX = 21;
+    public static final byte METHOD_CALL = 22;
+    public static final byte NEW_CLASS_INSTANCE = 23;
+    public static final byte THIS_CLASS = 24;
+    public static final byte LIST_VALUE = 25;
+    public static final byte NULL_VALUE = 26;
+    public static final byte INT_VALUE = 27;
+    public static final byte BOOL_VALUE = 28;
+    public static final byte STRING_VALUE = 29;
+
+    public static final byte INT_TYPE = 40;
+    public static final byte BOOL_TYPE = 41;
+    public static final byte STRING_TYPE = 42;
+    public static final byte CLASS_TYPE = 43;
+    public static final byte LIST_TYPE = 44;
+    public static final byte FPTR_TYPE = 45;
+    public static final byte NULL_TYPE = 46;
+    public static final byte NO_TYPE = 47;
+    //a list type element that is the same object as the one before it, as in list(3 # int)
+    public static final byte REPEATED_ELEMENT = 48;
+
+    private AstFormat() {
+    }
+}
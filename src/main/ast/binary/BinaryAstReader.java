@@ -0,0 +1,284 @@
+package main.ast.binary;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.ast.types.NoType;
+import main.ast.types.NullType;
+import main.ast.types.Type;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.list.ListNameType;
+import main.ast.types.list.ListType;
+import main.ast.types.single.BoolType;
+import main.ast.types.single.ClassType;
+import main.ast.types.single.IntType;
+import main.ast.types.single.StringType;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+//rebuilds a tree written by BinaryAstWriter. a buffer that is not a tree of this version for the expected
+//source is rejected with an IOException, so the caller can fall back to parsing
+public class BinaryAstReader {
+    private static final BinaryOperator[] binaryOperators = BinaryOperator.values();
+    private static final UnaryOperator[] unaryOperators = UnaryOperator.values();
+
+    private final ByteBuffer buffer;
+    private String[] strings;
+
+    public BinaryAstReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public Program read(byte[] sourceHash) throws IOException {
+        try {
+            if (this.buffer.getInt() != AstFormat.MAGIC || this.buffer.getInt() != AstFormat.VERSION)
+                throw new IOException("not a serialized tree of version " + AstFormat.VERSION);
+            byte[] hash = new byte[AstFormat.HASH_LENGTH];
+            this.buffer.get(hash);
+            if (!Arrays.equals(hash, sourceHash))
+                throw new IOException("serialized tree is of another source");
+            this.strings = new String[this.buffer.getInt()];
+            for (int i = 0; i < this.strings.length; i++) {
+                byte[] bytes = new byte[this.buffer.getInt()];
+                this.buffer.get(bytes);
+                this.strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            Node program = readNode();
+            if (!(program instanceof Program) || this.buffer.hasRemaining())
+                throw new IOException("malformed serialized tree");
+            return (Program) program;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ClassCastException | NegativeArraySizeException e) {
+            throw new IOException("malformed serialized tree", e);
+        }
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = this.buffer.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+    }
+
+    private String readString() {
+        return this.strings[readVarInt()];
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Node> ArrayList<T> readAll() throws IOException {
+        int size = readVarInt();
+        ArrayList<T> nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            nodes.add((T) readNode());
+        return nodes;
+    }
+
+    private Type readType() throws IOException {
+        byte tag = this.buffer.get();
+        switch (tag) {
+            case AstFormat.NULL:
+                return null;
+            case AstFormat.INT_TYPE:
+                return new IntType();
+            case AstFormat.BOOL_TYPE:
+                return new BoolType();
+            case AstFormat.STRING_TYPE:
+                return new StringType();
+            case AstFormat.CLASS_TYPE:
+                return new ClassType((Identifier) readNode());
+            case AstFormat.LIST_TYPE:
+                ListType listType = new ListType();
+                int size = readVarInt();
+                ListNameType previous = null;
+                for (int i = 0; i < size; i++) {
+                    byte elementTag = this.buffer.get();
+                    if (elementTag == AstFormat.REPEATED_ELEMENT && previous != null) {
+                        listType.addElementType(previous);
+                        continue;
+                    }
+                    if (elementTag != AstFormat.LIST_TYPE)
+                        throw new IOException("malformed serialized tree");
+                    Identifier name = (Identifier) readNode();
+                    previous = new ListNameType(name, readType());
+                    listType.addElementType(previous);
+                }
+                return listType;
+            case AstFormat.FPTR_TYPE:
+                FptrType fptrType = new FptrType();
+                int argumentsCount = readVarInt();
+                for (int i = 0; i < argumentsCount; i++)
+                    fptrType.addArgumentType(readType());
+                fptrType.setReturnType(readType());
+                return fptrType;
+            case AstFormat.NULL_TYPE:
+                return new NullType();
+            case AstFormat.NO_TYPE:
+                return new NoType();
+            default:
+                throw new IOException("unknown type tag " + tag);
+        }
+    }
+
+    private void readMethod(MethodDeclaration methodDeclaration) throws IOException {
+        methodDeclaration.setArgs(readAll());
+        methodDeclaration.setLocalVars(readAll());
+        methodDeclaration.setBody(readAll());
+    }
+
+    private Node readNode() throws IOException {
+        byte tag = this.buffer.get();
+        if (tag == AstFormat.NULL)
+            return null;
+        int line = readVarInt();
+        Node node;
+        switch (tag) {
+            case AstFormat.PROGRAM:
+                node = new Program(readAll());
+                break;
+            case AstFormat.CLASS_DECLARATION:
+                ClassDeclaration classDeclaration = new ClassDeclaration((Identifier) readNode());
+                classDeclaration.setParentClassName((Identifier) readNode());
+                classDeclaration.setFields(readAll());
+                classDeclaration.setConstructor((ConstructorDeclaration) readNode());
+                classDeclaration.setMethods(readAll());
+                node = classDeclaration;
+                break;
+            case AstFormat.CONSTRUCTOR_DECLARATION:
+                ConstructorDeclaration constructorDeclaration = new ConstructorDeclaration((Identifier) readNode());
+                readType();
+                readMethod(constructorDeclaration);
+                node = constructorDeclaration;
+                break;
+            case AstFormat.METHOD_DECLARATION:
+                Identifier methodName = (Identifier) readNode();
+                MethodDeclaration methodDeclaration = new MethodDeclaration(methodName, readType());
+                readMethod(methodDeclaration);
+                node = methodDeclaration;
+                break;
+            case AstFormat.FIELD_DECLARATION:
+                node = new FieldDeclaration((VarDeclaration) readNode());
+                break;
+            case AstFormat.VAR_DECLARATION:
+                Identifier varName = (Identifier) readNode();
+                node = new VarDeclaration(varName, readType());
+                break;
+            case AstFormat.ASSIGNMENT_STMT:
+                Expression lValue = (Expression) readNode();
+                node = new AssignmentStmt(lValue, (Expression) readNode());
+                break;
+            case AstFormat.BLOCK_STMT:
+                node = new BlockStmt(readAll());
+                break;
+            case AstFormat.CONDITIONAL_STMT:
+                Expression condition = (Expression) readNode();
+                ConditionalStmt conditionalStmt = new ConditionalStmt(condition, (Statement) readNode());
+                conditionalStmt.setElseBody((Statement) readNode());
+                node = conditionalStmt;
+                break;
+            case AstFormat.METHOD_CALL_STMT:
+                node = new MethodCallStmt((MethodCall) readNode());
+                break;
+            case AstFormat.PRINT_STMT:
+                node = new PrintStmt((Expression) readNode());
+                break;
+            case AstFormat.RETURN_STMT:
+                node = new ReturnStmt((Expression) readNode());
+                break;
+            case AstFormat.BREAK_STMT:
+                node = new BreakStmt();
+                break;
+            case AstFormat.CONTINUE_STMT:
+                node = new ContinueStmt();
+                break;
+            case AstFormat.FOREACH_STMT:
+                Identifier variable = (Identifier) readNode();
+                ForeachStmt foreachStmt = new ForeachStmt(variable, (Expression) readNode());
+                foreachStmt.setBody((Statement) readNode());
+                node = foreachStmt;
+                break;
+            case AstFormat.FOR_STMT:
+                ForStmt forStmt = new ForStmt();
+                forStmt.setInitialize((AssignmentStmt) readNode());
+                forStmt.setCondition((Expression) readNode());
+                forStmt.setUpdate((AssignmentStmt) readNode());
+                forStmt.setBody((Statement) readNode());
+                node = forStmt;
+                break;
+            case AstFormat.BINARY_EXPRESSION:
+                BinaryOperator binaryOperator = binaryOperators[this.buffer.get()];
+                Expression firstOperand = (Expression) readNode();
+                node = new BinaryExpression(firstOperand, (Expression) readNode(), binaryOperator);
+                break;
+            case AstFormat.UNARY_EXPRESSION:
+                UnaryOperator unaryOperator = unaryOperators[this.buffer.get()];
+                node = new UnaryExpression((Expression) readNode(), unaryOperator);
+                break;
+            case AstFormat.OBJECT_OR_LIST_MEMBER_ACCESS:
+                Expression memberInstance = (Expression) readNode();
+                node = new ObjectOrListMemberAccess(memberInstance, (Identifier) readNode());
+                break;
+            case AstFormat.IDENTIFIER:
+                node = new Identifier(readString());
+                break;
+            case AstFormat.LIST_ACCESS_BY_INDEX:
+                Expression listInstance = (Expression) readNode();
+                node = new ListAccessByIndex(listInstance, (Expression) readNode());
+                break;
+            case AstFormat.METHOD_CALL:
+                Expression callInstance = (Expression) readNode();
+                node = new MethodCall(callInstance, readAll());
+                break;
+            case AstFormat.NEW_CLASS_INSTANCE:
+                ClassType classType = new ClassType((Identifier) readNode());
+                node = new NewClassInstance(classType, readAll());
+                break;
+            case AstFormat.THIS_CLASS:
+                node = new ThisClass();
+                break;
+            case AstFormat.LIST_VALUE:
+                node = new ListValue(readAll());
+                break;
+            case AstFormat.NULL_VALUE:
+                node = new NullValue();
+                break;
+            case AstFormat.INT_VALUE:
+                int zigzag = readVarInt();
+                node = new IntValue((zigzag >>> 1) ^ -(zigzag & 1));
+                break;
+            case AstFormat.BOOL_VALUE:
+                node = new BoolValue(this.buffer.get() != 0);
+                break;
+            case AstFormat.STRING_VALUE:
+                node = new StringValue(readString());
+                break;
+            default:
+                throw new IOException("unknown node tag " + tag);
+        }
+        node.setLine(line);
+        return node;
+    }
+}
@@ -0,0 +1,364 @@
+package main.ast.binary;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.ast.types.NoType;
+import main.ast.types.Type;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.list.ListNameType;
+import main.ast.types.list.ListType;
+import main.ast.types.single.BoolType;
+import main.ast.types.single.ClassType;
+import main.ast.types.single.IntType;
+import main.ast.types.single.StringType;
+import main.visitor.Visitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+public class BinaryAstWriter extends Visitor<Void> {
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final HashMap<String, Integer> stringIndices = new HashMap<>();
+    private final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+
+    public void write(Program program, byte[] sourceHash, OutputStream outputStream) throws IOException {
+        program.accept(this);
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(AstFormat.MAGIC);
+        output.writeInt(AstFormat.VERSION);
+        output.write(sourceHash);
+        output.writeInt(this.stringIndices.size());
+        this.strings.writeTo(output);
+        this.body.writeTo(output);
+        output.flush();
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7f) != 0) {
+            this.body.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        this.body.write(value);
+    }
+
+    private void writeString(String string) {
+        Integer index = this.stringIndices.get(string);
+        if (index == null) {
+            index = this.stringIndices.size();
+            this.stringIndices.put(string, index);
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            this.strings.write(bytes.length >>> 24);
+            this.strings.write(bytes.length >>> 16);
+            this.strings.write(bytes.length >>> 8);
+            this.strings.write(bytes.length);
+            this.strings.write(bytes, 0, bytes.length);
+        }
+        writeVarInt(index);
+    }
+
+    private void writeHeader(byte tag, Node node) {
+        this.body.write(tag);
+        writeVarInt(node.getLine());
+    }
+
+    private void writeNullable(Node node) {
+        if (node == null)
+            this.body.write(AstFormat.NULL);
+        else
+            node.accept(this);
+    }
+
+    private void writeAll(List<? extends Node> nodes) {
+        writeVarInt(nodes.size());
+        for (Node node : nodes)
+            node.accept(this);
+    }
+
+    private void writeType(Type type) {
+        if (type instanceof IntType)
+            this.body.write(AstFormat.INT_TYPE);
+        else if (type instanceof BoolType)
+            this.body.write(AstFormat.BOOL_TYPE);
+        else if (type instanceof StringType)
+            this.body.write(AstFormat.STRING_TYPE);
+        else if (type instanceof ClassType) {
+            this.body.write(AstFormat.CLASS_TYPE);
+            ((ClassType) type).getClassName().accept(this);
+        }
+        else if (type instanceof ListType) {
+            this.body.write(AstFormat.LIST_TYPE);
+            List<ListNameType> elementsTypes = ((ListType) type).getElementsTypes();
+            writeVarInt(elementsTypes.size());
+            for (int i = 0; i < elementsTypes.size(); i++) {
+                if (i > 0 && elementsTypes.get(i) == elementsTypes.get(i - 1)) {
+                    this.body.write(AstFormat.REPEATED_ELEMENT);
+                    continue;
+                }
+                this.body.write(AstFormat.LIST_TYPE);
+                elementsTypes.get(i).getName().accept(this);
+                writeType(elementsTypes.get(i).getType());
+            }
+        }
+        else if (type instanceof FptrType) {
+            this.body.write(AstFormat.FPTR_TYPE);
+            writeVarInt(((FptrType) type).getArgumentsTypes().size());
+            for (Type argumentType : ((FptrType) type).getArgumentsTypes())
+                writeType(argumentType);
+            writeType(((FptrType) type).getReturnType());
+        }
+        else if (type instanceof NoType)
+            this.body.write(AstFormat.NO_TYPE);
+        else if (type == null)
+            this.body.write(AstFormat.NULL);
+        else
+            this.body.write(AstFormat.NULL_TYPE);
+    }
+
+    @Override
+    public Void visit(Program program) {
+        writeHeader(AstFormat.PROGRAM, program);
+        writeAll(program.getClasses());
+        return null;
+    }
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        writeHeader(AstFormat.CLASS_DECLARATION, classDeclaration);
+        classDeclaration.getClassName().accept(this);
+        writeNullable(classDeclaration.getParentClassName());
+        writeAll(classDeclaration.getFields());
+        writeNullable(classDeclaration.getConstructor());
+        writeAll(classDeclaration.getMethods());
+        return null;
+    }
+
+    private void writeMethod(MethodDeclaration methodDeclaration) {
+        methodDeclaration.getMethodName().accept(this);
+        writeType(methodDeclaration.getReturnType());
+        writeAll(methodDeclaration.getArgs());
+        writeAll(methodDeclaration.getLocalVars());
+        writeAll(methodDeclaration.getBody());
+    }
+
+    @Override
+    public Void visit(ConstructorDeclaration constructorDeclaration) {
+        writeHeader(AstFormat.CONSTRUCTOR_DECLARATION, constructorDeclaration);
+        writeMethod(constructorDeclaration);
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        writeHeader(AstFormat.METHOD_DECLARATION, methodDeclaration);
+        writeMethod(methodDeclaration);
+        return null;
+    }
+
+    @Override
+    public Void visit(FieldDeclaration fieldDeclaration) {
+        writeHeader(AstFormat.FIELD_DECLARATION, fieldDeclaration);
+        fieldDeclaration.getVarDeclaration().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(VarDeclaration varDeclaration) {
+        writeHeader(AstFormat.VAR_DECLARATION, varDeclaration);
+        varDeclaration.getVarName().accept(this);
+        writeType(varDeclaration.getType());
+        return null;
+    }
+
+    @Override
+    public Void visit(AssignmentStmt assignmentStmt) {
+        writeHeader(AstFormat.ASSIGNMENT_STMT, assignmentStmt);
+        assignmentStmt.getlValue().accept(this);
+        assignmentStmt.getrValue().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(BlockStmt blockStmt) {
+        writeHeader(AstFormat.BLOCK_STMT, blockStmt);
+        writeAll(blockStmt.getStatements());
+        return null;
+    }
+
+    @Override
+    public Void visit(ConditionalStmt conditionalStmt) {
+        writeHeader(AstFormat.CONDITIONAL_STMT, conditionalStmt);
+        conditionalStmt.getCondition().accept(this);
+        conditionalStmt.getThenBody().accept(this);
+        writeNullable(conditionalStmt.getElseBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodCallStmt methodCallStmt) {
+        writeHeader(AstFormat.METHOD_CALL_STMT, methodCallStmt);
+        methodCallStmt.getMethodCall().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(PrintStmt print) {
+        writeHeader(AstFormat.PRINT_STMT, print);
+        print.getArg().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ReturnStmt returnStmt) {
+        writeHeader(AstFormat.RETURN_STMT, returnStmt);
+        returnStmt.getReturnedExpr().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(BreakStmt breakStmt) {
+        writeHeader(AstFormat.BREAK_STMT, breakStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(ContinueStmt continueStmt) {
+        writeHeader(AstFormat.CONTINUE_STMT, continueStmt);
+        return null;
+    }
+
+    @Override
+    public Void visit(ForeachStmt foreachStmt) {
+        writeHeader(AstFormat.FOREACH_STMT, foreachStmt);
+        foreachStmt.getVariable().accept(this);
+        foreachStmt.getList().accept(this);
+        foreachStmt.getBody().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ForStmt forStmt) {
+        writeHeader(AstFormat.FOR_STMT, forStmt);
+        writeNullable(forStmt.getInitialize());
+        writeNullable(forStmt.getCondition());
+        writeNullable(forStmt.getUpdate());
+        writeNullable(forStmt.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(BinaryExpression binaryExpression) {
+        writeHeader(AstFormat.BINARY_EXPRESSION, binaryExpression);
+        this.body.write(binaryExpression.getBinaryOperator().ordinal());
+        binaryExpression.getFirstOperand().accept(this);
+        binaryExpression.getSecondOperand().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryExpression unaryExpression) {
+        writeHeader(AstFormat.UNARY_EXPRESSION, unaryExpression);
+        this.body.write(unaryExpression.getOperator().ordinal());
+        unaryExpression.getOperand().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        writeHeader(AstFormat.OBJECT_OR_LIST_MEMBER_ACCESS, objectOrListMemberAccess);
+        objectOrListMemberAccess.getInstance().accept(this);
+        objectOrListMemberAccess.getMemberName().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(Identifier identifier) {
+        writeHeader(AstFormat.IDENTIFIER, identifier);
+        writeString(identifier.getName());
+        return null;
+    }
+
+    @Override
+    public Void visit(ListAccessByIndex listAccessByIndex) {
+        writeHeader(AstFormat.LIST_ACCESS_BY_INDEX, listAccessByIndex);
+        listAccessByIndex.getInstance().accept(this);
+        listAccessByIndex.getIndex().accept(this);
+        return null;
+    }
+
+    @Override
+    public Void visit(MethodCall methodCall) {
+        writeHeader(AstFormat.METHOD_CALL, methodCall);
+        methodCall.getInstance().accept(this);
+        writeAll(methodCall.getArgs());
+        return null;
+    }
+
+    @Override
+    public Void visit(NewClassInstance newClassInstance) {
+        writeHeader(AstFormat.NEW_CLASS_INSTANCE, newClassInstance);
+        newClassInstance.getClassType().getClassName().accept(this);
+        writeAll(newClassInstance.getArgs());
+        return null;
+    }
+
+    @Override
+    public Void visit(ThisClass thisClass) {
+        writeHeader(AstFormat.THIS_CLASS, thisClass);
+        return null;
+    }
+
+    @Override
+    public Void visit(ListValue listValue) {
+        writeHeader(AstFormat.LIST_VALUE, listValue);
+        writeAll(listValue.getElements());
+        return null;
+    }
+
+    @Override
+    public Void visit(NullValue nullValue) {
+        writeHeader(AstFormat.NULL_VALUE, nullValue);
+        return null;
+    }
+
+    @Override
+    public Void visit(IntValue intValue) {
+        writeHeader(AstFormat.INT_VALUE, intValue);
+        writeVarInt((intValue.getConstant() << 1) ^ (intValue.getConstant() >> 31));
+        return null;
+    }
+
+    @Override
+    public Void visit(BoolValue boolValue) {
+        writeHeader(AstFormat.BOOL_VALUE, boolValue);
+        this.body.write(boolValue.getConstant() ? 1 : 0);
+        return null;
+    }
+
+    @Override
+    public Void visit(StringValue stringValue) {
+        writeHeader(AstFormat.STRING_VALUE, stringValue);
+        writeString(stringValue.getConstant());
+        return null;
+    }
+}
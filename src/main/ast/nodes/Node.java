@@ -1,29 +1,24 @@
 package main.ast.nodes;
 
 import main.compileErrorException.CompileErrorException;
+import main.compileErrorException.Diagnostics;
 import main.visitor.IVisitor;
 
-import java.util.ArrayList;
-
 public abstract class Node {
     private int line;
-    private ArrayList<CompileErrorException> errors = new ArrayList<>();
+    //the errors themselves go to Diagnostics.current
+    private boolean hasError = false;
     public static boolean isCatchErrorsActive = true;
 
-    public ArrayList<CompileErrorException> flushErrors() {
-        ArrayList<CompileErrorException> errors = this.errors;
-        this.errors = new ArrayList<>();
-        return errors;
-    }
-
     public void addError(CompileErrorException e) {
         if(Node.isCatchErrorsActive) {
-            this.errors.add(e);
+            this.hasError = true;
+            Diagnostics.current.report(e);
         }
     }
 
     public boolean hasError() {
-        return this.errors.size() != 0;
+        return this.hasError;
     }
 
     public int getLine() {
@@ -1,21 +1,34 @@
 package main.ast.nodes.expression;
 
+import main.symbolTable.utils.interner.NameInterner;
 import main.visitor.IVisitor;
 
 //line -> IDENTIFIER
 public class Identifier extends Expression{
     private String name;
+    private int nameId = -1;
 
+    //names repeat all over a program, so every identifier with the same name shares one string (and one id)
     public Identifier(String name) {
-        this.name = name;
+        this.setName(name);
     }
 
     public String getName() {
         return name;
     }
 
+    public int getNameId() {
+        return nameId;
+    }
+
     public void setName(String name) {
-        this.name = name;
+        if(name == null) {
+            this.name = null;
+            this.nameId = -1;
+            return;
+        }
+        this.nameId = NameInterner.getId(name);
+        this.name = NameInterner.getName(this.nameId);
     }
 
     @Override
@@ -9,6 +9,10 @@ public class CompileErrorException extends Exception {
         this.message = message;
     }
 
+    public int getLine() {
+        return this.line;
+    }
+
     public String getMessage() {
         return "Line:" + this.line + ":" + this.message;
     }
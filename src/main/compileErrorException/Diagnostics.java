@@ -0,0 +1,31 @@
+package main.compileErrorException;
+
+import java.util.ArrayList;
+
+//the errors of one pass, collected as the analyzers find them. with a limit, the error that reaches it stops the
+//pass instead of letting it walk the rest of the program
+public class Diagnostics {
+    public static Diagnostics current = new Diagnostics(0);
+
+    private final ArrayList<CompileErrorException> errors = new ArrayList<>();
+    private final int maxErrors;
+
+    //0 for no limit
+    public Diagnostics(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public synchronized void report(CompileErrorException e) {
+        this.errors.add(e);
+        if(this.maxErrors > 0 && this.errors.size() >= this.maxErrors)
+            throw new TooManyErrorsException(this.maxErrors);
+    }
+
+    public synchronized boolean hasErrors() {
+        return !this.errors.isEmpty();
+    }
+
+    public synchronized ArrayList<CompileErrorException> getErrors() {
+        return new ArrayList<>(this.errors);
+    }
+}
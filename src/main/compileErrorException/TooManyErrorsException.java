@@ -0,0 +1,9 @@
+package main.compileErrorException;
+
+public class TooManyErrorsException extends RuntimeException {
+
+    public TooManyErrorsException(int maxErrors) {
+        super("Stopped after " + maxErrors + " errors");
+    }
+
+}
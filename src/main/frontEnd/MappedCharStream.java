@@ -0,0 +1,108 @@
+package main.frontEnd;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+//the characters of an ascii source read straight from a memory mapped file, so they are paged in by the os
+//instead of decoded into a code point array on the heap. a character index is the byte offset in the file
+public class MappedCharStream implements CharStream {
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final String sourceName;
+    private int index = 0;
+
+    private MappedCharStream(MappedByteBuffer buffer, String sourceName) {
+        this.buffer = buffer;
+        this.size = buffer.limit();
+        this.sourceName = sourceName;
+    }
+
+    //a file with non ascii bytes (or too big to map at once) is decoded as usual, since its
+    //code point indices would not be byte offsets
+    public static CharStream open(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                return CharStreams.fromPath(path);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int i = 0; i < buffer.limit(); i++)
+                if (buffer.get(i) < 0)
+                    return CharStreams.fromPath(path);
+            return new MappedCharStream(buffer, fileName);
+        }
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = Math.max(interval.a, 0);
+        int stop = Math.min(interval.b, this.size - 1);
+        if (stop < start)
+            return "";
+        byte[] bytes = new byte[stop - start + 1];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = this.buffer.get(start + i);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void consume() {
+        if (this.index >= this.size)
+            throw new IllegalStateException("cannot consume EOF");
+        this.index++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0)
+            return 0;
+        int position = i > 0 ? this.index + i - 1 : this.index + i;
+        if (position < 0 || position >= this.size)
+            return IntStream.EOF;
+        return this.buffer.get(position);
+    }
+
+    //the whole file stays addressable, so marks cost nothing
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return this.index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.index = Math.min(index, this.size);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return this.sourceName;
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, this.size - 1));
+    }
+}
@@ -0,0 +1,24 @@
+package main.frontEnd;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+//an unbuffered token stream that drops tokens once the parser can no longer look back at them. the text
+//between two tokens, which syntax error messages ask for, is taken from the characters instead of the
+//tokens, since the tokens before the current one are usually gone
+public class StreamingTokenStream extends UnbufferedTokenStream<Token> {
+    public StreamingTokenStream(TokenSource tokenSource) {
+        super(tokenSource);
+    }
+
+    @Override
+    public String getText(Token start, Token stop) {
+        CharStream charStream = this.tokenSource.getInputStream();
+        if (start == null || stop == null || charStream == null)
+            return "";
+        return charStream.getText(Interval.of(start.getStartIndex(), stop.getStopIndex()));
+    }
+}
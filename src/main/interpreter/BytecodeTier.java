@@ -0,0 +1,345 @@
+package main.interpreter;
+
+import main.CompilerOptions;
+import main.ProgramClassLoader;
+import main.ast.nodes.Program;
+import main.service.JasminAssembler;
+import main.symbolTable.utils.graph.Graph;
+import main.visitor.codeGenerator.CodeGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+//compiles the whole program in the background the first time a method gets hot. once the classes are loaded
+//the interpreter hands the rest of the run over to them: every later call and instantiation runs compiled, and
+//the interpreter's own objects are converted to compiled ones the first time they are used, once each
+public class BytecodeTier {
+    private final Program program;
+    private final Graph<String> classHierarchy;
+    private final CompilerOptions options;
+    private final IdentityHashMap<Object, Object> compiledObjects = new IdentityHashMap<>();
+    private final HashMap<Class<?>, Constructor<?>> allocators = new HashMap<>();
+    private final HashMap<Class<?>, Constructor<?>[]> constructors = new HashMap<>();
+    private final HashMap<Class<?>, HashMap<String, Method>> methods = new HashMap<>();
+    private final HashMap<Class<?>, HashMap<String, Field>> fields = new HashMap<>();
+    private Class<?> listClass;
+    private Constructor<?> listConstructor;
+    private Constructor<?> fptrConstructor;
+    private Method flush;
+    private Thread compilerThread;
+    private volatile ProgramClassLoader classLoader;
+
+    public BytecodeTier(Program program, Graph<String> classHierarchy, CompilerOptions options) {
+        this.program = program;
+        this.classHierarchy = classHierarchy;
+        this.options = options;
+    }
+
+    public void requestCompilation() {
+        if (this.compilerThread != null)
+            return;
+        this.compilerThread = new Thread(this::compile, "sophia-tier-up");
+        this.compilerThread.setDaemon(true);
+        this.compilerThread.start();
+    }
+
+    public boolean isReady() {
+        return this.classLoader != null;
+    }
+
+    public void shutdown() {
+        if (this.compilerThread != null)
+            this.compilerThread.interrupt();
+    }
+
+    //the interpreter's lists are plain element lists, so the tier is generated with the generic List layout only
+    private void compile() {
+        File directory = null;
+        try {
+            directory = Files.createTempDirectory("sophia-tier").toFile();
+            CompilerOptions tierOptions = this.options.copy();
+            tierOptions.setOutputDirectory(directory.getPath() + File.separator);
+            tierOptions.setSpecializedListsEnabled(false);
+            tierOptions.setOffHeapListsEnabled(false);
+            tierOptions.setProfilingEnabled(false);
+            tierOptions.setBudgetChecksEnabled(false);
+            tierOptions.setAllocationConstructorsEnabled(true);
+            this.program.accept(new CodeGenerator(this.classHierarchy, tierOptions));
+            Map<String, byte[]> compiledClasses = new JasminAssembler(new File("utilities/jarFiles/jasmin.jar")).assemble(directory);
+            this.classLoader = new ProgramClassLoader(compiledClasses);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Tier-up compilation failed: " + e.getMessage());
+        } finally {
+            if (directory != null)
+                deleteDirectory(directory);
+        }
+    }
+
+    private static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+        directory.delete();
+    }
+
+    public Object call(Object functionPointer, ArrayList<Object> args) {
+        Object compiledPointer = toCompiled(functionPointer);
+        Object receiver;
+        String methodName;
+        try {
+            receiver = findField(compiledPointer.getClass(), "instance").get(compiledPointer);
+            methodName = (String) findField(compiledPointer.getClass(), "methodName").get(compiledPointer);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        if (receiver == null)
+            throw new NullPointerException();
+        Object[] compiledArgs = new Object[args.size()];
+        for (int i = 0; i < compiledArgs.length; i++)
+            compiledArgs[i] = toCompiled(args.get(i));
+        try {
+            Object result = findMethod(receiver.getClass(), methodName).invoke(receiver, compiledArgs);
+            flushOutput();
+            return result;
+        } catch (InvocationTargetException e) {
+            throw rethrow(e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //like the interpreter, a class whose constructor takes arguments is built by its no-argument one when given none
+    public Object instantiate(String className, ArrayList<Object> args) {
+        Object[] compiledArgs = new Object[args.size()];
+        for (int i = 0; i < compiledArgs.length; i++)
+            compiledArgs[i] = toCompiled(args.get(i));
+        Constructor<?>[] classConstructors = this.constructors.computeIfAbsent(loadClass(className), Class::getConstructors);
+        for (Constructor<?> constructor : classConstructors) {
+            if (constructor.getParameterCount() != compiledArgs.length || isAllocator(constructor))
+                continue;
+            try {
+                Object object = constructor.newInstance(compiledArgs);
+                flushOutput();
+                return object;
+            } catch (InvocationTargetException e) {
+                throw rethrow(e);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalStateException("Missing compiled constructor of " + className);
+    }
+
+    private static boolean isAllocator(Constructor<?> constructor) {
+        return constructor.getParameterCount() == 1 && constructor.getParameterTypes()[0] == Void.class;
+    }
+
+    private RuntimeException rethrow(InvocationTargetException e) {
+        flushOutput();
+        if (e.getCause() instanceof Error)
+            throw (Error) e.getCause();
+        if (e.getCause() instanceof RuntimeException)
+            return (RuntimeException) e.getCause();
+        return new IllegalStateException(e.getCause());
+    }
+
+    //a field's value, or a function pointer when the member is a method
+    public Object getMember(Object instance, String memberName) {
+        Object object = toCompiled(instance);
+        if (object == null)
+            throw new NullPointerException();
+        try {
+            Field field = findField(object.getClass(), memberName);
+            if (field != null)
+                return field.get(object);
+            return getFptrConstructor().newInstance(object, memberName);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void setField(Object instance, String fieldName, Object value) {
+        Object object = toCompiled(instance);
+        if (object == null)
+            throw new NullPointerException();
+        try {
+            findField(object.getClass(), fieldName).set(object, toCompiled(value));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean isList(Object value) {
+        return value != null && value.getClass() == getListClass();
+    }
+
+    @SuppressWarnings("unchecked")
+    public ArrayList<Object> getElements(Object list) {
+        Object compiledList = toCompiled(list);
+        try {
+            return (ArrayList<Object>) findField(getListClass(), "elements").get(compiledList);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //the elements are already the list's own copies, so they are not copied again like the List constructor would
+    public Object newList(ArrayList<Object> elements) {
+        ArrayList<Object> compiledElements = new ArrayList<>(elements.size());
+        for (Object element : elements)
+            compiledElements.add(toCompiled(element));
+        try {
+            Object list = getListConstructor().newInstance(new ArrayList<>());
+            findField(getListClass(), "elements").set(list, compiledElements);
+            return list;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Object copyList(Object list) {
+        Object compiledList = toCompiled(list);
+        try {
+            return findMethod(getListClass(), "copy").invoke(compiledList);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Method findMethod(Class<?> compiledClass, String methodName) {
+        HashMap<String, Method> classMethods = this.methods.computeIfAbsent(compiledClass, key -> new HashMap<>());
+        Method cached = classMethods.get(methodName);
+        if (cached != null)
+            return cached;
+        for (Class<?> current = compiledClass; current != null; current = current.getSuperclass())
+            for (Method method : current.getDeclaredMethods())
+                if (method.getName().equals(methodName) && Modifier.isPublic(method.getModifiers())) {
+                    classMethods.put(methodName, method);
+                    return method;
+                }
+        throw new IllegalStateException("Missing compiled method " + methodName);
+    }
+
+    //null when the class has no such field, which is remembered too since methods are looked up as members first
+    private Field findField(Class<?> compiledClass, String fieldName) {
+        HashMap<String, Field> classFields = this.fields.computeIfAbsent(compiledClass, key -> new HashMap<>());
+        if (classFields.containsKey(fieldName))
+            return classFields.get(fieldName);
+        Field found = null;
+        for (Class<?> current = compiledClass; current != null && found == null; current = current.getSuperclass()) {
+            try {
+                found = current.getDeclaredField(fieldName);
+                found.setAccessible(true);
+            } catch (NoSuchFieldException e) {
+                //declared by a parent class
+            }
+        }
+        classFields.put(fieldName, found);
+        return found;
+    }
+
+    private void flushOutput() {
+        try {
+            if (this.flush == null)
+                this.flush = this.classLoader.loadClass("SophiaOut").getMethod("flush");
+            this.flush.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Class<?> loadClass(String name) {
+        try {
+            return this.classLoader.loadClass(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Class<?> getListClass() {
+        if (this.listClass == null)
+            this.listClass = loadClass("List");
+        return this.listClass;
+    }
+
+    private Constructor<?> getListConstructor() throws NoSuchMethodException {
+        if (this.listConstructor == null)
+            this.listConstructor = getListClass().getConstructor(ArrayList.class);
+        return this.listConstructor;
+    }
+
+    private Constructor<?> getFptrConstructor() throws NoSuchMethodException {
+        if (this.fptrConstructor == null)
+            this.fptrConstructor = loadClass("Fptr").getConstructor(Object.class, String.class);
+        return this.fptrConstructor;
+    }
+
+    //the interpreter's objects are rebuilt through the constructors the tier's classes have for this, which set no fields
+    private Object allocate(Class<?> compiledClass) throws ReflectiveOperationException {
+        Constructor<?> allocator = this.allocators.get(compiledClass);
+        if (allocator == null) {
+            allocator = compiledClass.getConstructor(Void.class);
+            this.allocators.put(compiledClass, allocator);
+        }
+        return allocator.newInstance((Object) null);
+    }
+
+    //the compiled object standing for an interpreter value. an object is converted with everything it reaches the
+    //first time it is asked for, and the interpreter only uses the compiled one from then on. the objects are
+    //allocated first and filled in from a work list, since a long linked structure would overflow a recursive walk
+    public Object toCompiled(Object value) {
+        ArrayDeque<Object> unfilled = new ArrayDeque<>();
+        Object compiled = getCompiled(value, unfilled);
+        try {
+            while (!unfilled.isEmpty())
+                fill(unfilled.pop(), unfilled);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return compiled;
+    }
+
+    private Object getCompiled(Object value, ArrayDeque<Object> unfilled) {
+        if (!(value instanceof SophiaList || value instanceof SophiaObject || value instanceof FunctionPointer))
+            return value;
+        Object compiled = this.compiledObjects.get(value);
+        if (compiled != null)
+            return compiled;
+        try {
+            if (value instanceof SophiaList)
+                compiled = getListConstructor().newInstance(new ArrayList<>());
+            else if (value instanceof FunctionPointer)
+                compiled = getFptrConstructor().newInstance(null, ((FunctionPointer) value).getMethodName());
+            else
+                compiled = allocate(loadClass(((SophiaObject) value).getClassDeclaration().getClassName().getName()));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        this.compiledObjects.put(value, compiled);
+        unfilled.push(value);
+        return compiled;
+    }
+
+    private void fill(Object value, ArrayDeque<Object> unfilled) throws ReflectiveOperationException {
+        Object compiled = this.compiledObjects.get(value);
+        if (value instanceof SophiaList) {
+            ArrayList<Object> elements = new ArrayList<>(((SophiaList) value).size());
+            for (Object element : ((SophiaList) value).getElements())
+                elements.add(getCompiled(element, unfilled));
+            findField(compiled.getClass(), "elements").set(compiled, elements);
+        }
+        else if (value instanceof FunctionPointer)
+            findField(compiled.getClass(), "instance").set(compiled, getCompiled(((FunctionPointer) value).getInstance(), unfilled));
+        else
+            for (Map.Entry<String, Object> field : ((SophiaObject) value).getFields().entrySet())
+                findField(compiled.getClass(), field.getKey()).set(compiled, getCompiled(field.getValue(), unfilled));
+    }
+}
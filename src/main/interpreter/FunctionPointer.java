@@ -0,0 +1,19 @@
+package main.interpreter;
+
+public class FunctionPointer {
+    private final SophiaObject instance;
+    private final String methodName;
+
+    public FunctionPointer(SophiaObject instance, String methodName) {
+        this.instance = instance;
+        this.methodName = methodName;
+    }
+
+    public SophiaObject getInstance() {
+        return instance;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+}
@@ -0,0 +1,584 @@
+package main.interpreter;
+
+import main.CompilerOptions;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.operators.BinaryOperator;
+import main.ast.nodes.expression.operators.UnaryOperator;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.ast.types.Type;
+import main.ast.types.list.ListNameType;
+import main.ast.types.list.ListType;
+import main.ast.types.single.BoolType;
+import main.ast.types.single.IntType;
+import main.ast.types.single.StringType;
+import main.symbolTable.utils.graph.Graph;
+import main.visitor.Visitor;
+import main.visitor.typeChecker.ExpressionTypeChecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+//runs a checked program by walking its tree, with the same evaluation order and copy semantics as the
+//generated code. statements return null, BREAK, CONTINUE or RETURN to unwind loops and method bodies. once the
+//bytecode tier is ready, calls and instantiations run compiled and the methods still being interpreted work on
+//the compiled objects, so every heap access goes through the helpers below
+public class Interpreter extends Visitor<Object> {
+    private static final Object BREAK = new Object();
+    private static final Object CONTINUE = new Object();
+    private static final Object RETURN = new Object();
+
+    private final CompilerOptions options;
+    private final ExpressionTypeChecker expressionTypeChecker;
+    private final BytecodeTier bytecodeTier;
+    private final HashMap<String, ClassDeclaration> classes = new HashMap<>();
+    private final HashMap<ClassDeclaration, HashMap<String, MethodDeclaration>> methods = new HashMap<>();
+    private final HashMap<MethodDeclaration, ClassDeclaration> declaringClasses = new HashMap<>();
+    private final HashMap<MethodDeclaration, MethodCounters> counters = new HashMap<>();
+    private final IdentityHashMap<Expression, Integer> listSizes = new IdentityHashMap<>();
+    private final IdentityHashMap<ObjectOrListMemberAccess, Integer> listMemberIndices = new IdentityHashMap<>();
+    private final IdentityHashMap<StringValue, String> strings = new IdentityHashMap<>();
+
+    private ClassDeclaration currentClass;
+    private MethodDeclaration currentMethod;
+    private MethodCounters currentCounters;
+    private SophiaObject currentObject;
+    private HashMap<String, Object> locals;
+    private Object returnValue;
+    private boolean tieredUp;
+
+    public Interpreter(Program program, Graph<String> classHierarchy, CompilerOptions options) {
+        this.options = options;
+        this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
+        this.bytecodeTier = new BytecodeTier(program, classHierarchy, options);
+        for (ClassDeclaration classDeclaration : program.getClasses()) {
+            this.classes.put(classDeclaration.getClassName().getName(), classDeclaration);
+            for (MethodDeclaration methodDeclaration : classDeclaration.getMethods())
+                this.declaringClasses.put(methodDeclaration, classDeclaration);
+            if (classDeclaration.getConstructor() != null)
+                this.declaringClasses.put(classDeclaration.getConstructor(), classDeclaration);
+        }
+    }
+
+    public void run() {
+        instantiate(this.classes.get("Main"), new ArrayList<>());
+    }
+
+    public void shutdown() {
+        this.bytecodeTier.shutdown();
+    }
+
+    private ClassDeclaration getParentClass(ClassDeclaration classDeclaration) {
+        if (classDeclaration.getParentClassName() == null)
+            return null;
+        return this.classes.get(classDeclaration.getParentClassName().getName());
+    }
+
+    private MethodDeclaration findMethod(ClassDeclaration classDeclaration, String methodName) {
+        HashMap<String, MethodDeclaration> classMethods = this.methods.computeIfAbsent(classDeclaration, key -> new HashMap<>());
+        MethodDeclaration method = classMethods.get(methodName);
+        if (method != null)
+            return method;
+        for (ClassDeclaration current = classDeclaration; current != null; current = getParentClass(current)) {
+            for (MethodDeclaration methodDeclaration : current.getMethods()) {
+                if (methodDeclaration.getMethodName().getName().equals(methodName)) {
+                    classMethods.put(methodName, methodDeclaration);
+                    return methodDeclaration;
+                }
+            }
+        }
+        return null;
+    }
+
+    private MethodCounters getCounters(MethodDeclaration methodDeclaration) {
+        return this.counters.computeIfAbsent(methodDeclaration, key -> new MethodCounters());
+    }
+
+    private Object getDefaultValue(Type type) {
+        if (type instanceof IntType)
+            return 0;
+        if (type instanceof BoolType)
+            return false;
+        if (type instanceof StringType)
+            return "";
+        if (type instanceof ListType) {
+            ArrayList<ListNameType> elementsTypes = ((ListType) type).getElementsTypes();
+            ArrayList<Object> elements = new ArrayList<>(elementsTypes.size());
+            for (ListNameType elementType : elementsTypes)
+                elements.add(getDefaultValue(elementType.getType()));
+            return new SophiaList(elements);
+        }
+        return null;
+    }
+
+    private SophiaObject instantiate(ClassDeclaration classDeclaration, ArrayList<Object> args) {
+        SophiaObject object = new SophiaObject(classDeclaration);
+        construct(object, classDeclaration, args);
+        return object;
+    }
+
+    //like the generated constructors, the parent part of an object is always built by its no-argument constructor
+    private void construct(SophiaObject object, ClassDeclaration classDeclaration, ArrayList<Object> args) {
+        ClassDeclaration parentClass = getParentClass(classDeclaration);
+        if (parentClass != null)
+            construct(object, parentClass, new ArrayList<>());
+        for (FieldDeclaration fieldDeclaration : classDeclaration.getFields()) {
+            VarDeclaration field = fieldDeclaration.getVarDeclaration();
+            object.getFields().put(field.getVarName().getName(), getDefaultValue(field.getType()));
+        }
+        ConstructorDeclaration constructor = classDeclaration.getConstructor();
+        if (constructor != null && constructor.getArgs().size() == args.size())
+            execute(object, constructor, args);
+    }
+
+    private Object call(Object value, ArrayList<Object> args) {
+        if (this.tieredUp)
+            return this.bytecodeTier.call(value, args);
+        FunctionPointer functionPointer = (FunctionPointer) value;
+        SophiaObject receiver = functionPointer.getInstance();
+        if (receiver == null)
+            throw new NullPointerException();
+        MethodDeclaration method = findMethod(receiver.getClassDeclaration(), functionPointer.getMethodName());
+        MethodCounters methodCounters = getCounters(method);
+        methodCounters.countInvocation();
+        if (methodCounters.isHot(this.options.getTierUpThreshold())) {
+            this.bytecodeTier.requestCompilation();
+            if (this.bytecodeTier.isReady()) {
+                this.tieredUp = true;
+                return this.bytecodeTier.call(functionPointer, args);
+            }
+        }
+        return execute(receiver, method, args);
+    }
+
+    private Object execute(SophiaObject object, MethodDeclaration method, ArrayList<Object> args) {
+        ClassDeclaration callerClass = this.currentClass;
+        MethodDeclaration callerMethod = this.currentMethod;
+        MethodCounters callerCounters = this.currentCounters;
+        SophiaObject callerObject = this.currentObject;
+        HashMap<String, Object> callerLocals = this.locals;
+        this.currentClass = this.declaringClasses.get(method);
+        this.currentMethod = method;
+        this.currentCounters = getCounters(method);
+        this.currentObject = object;
+        this.locals = new HashMap<>();
+        this.expressionTypeChecker.setCurrentClass(this.currentClass);
+        this.expressionTypeChecker.setCurrentMethod(method);
+        try {
+            for (int i = 0; i < args.size(); i++)
+                this.locals.put(method.getArgs().get(i).getVarName().getName(), args.get(i));
+            for (VarDeclaration localVar : method.getLocalVars())
+                this.locals.put(localVar.getVarName().getName(), getDefaultValue(localVar.getType()));
+            for (Statement statement : method.getBody()) {
+                if (statement.accept(this) == RETURN) {
+                    Object result = this.returnValue;
+                    this.returnValue = null;
+                    return result;
+                }
+            }
+            return null;
+        } finally {
+            this.currentClass = callerClass;
+            this.currentMethod = callerMethod;
+            this.currentCounters = callerCounters;
+            this.currentObject = callerObject;
+            this.locals = callerLocals;
+            if (callerClass != null) {
+                this.expressionTypeChecker.setCurrentClass(callerClass);
+                this.expressionTypeChecker.setCurrentMethod(callerMethod);
+            }
+        }
+    }
+
+    private int getListSize(Expression list) {
+        Integer size = this.listSizes.get(list);
+        if (size == null) {
+            size = ((ListType) list.accept(this.expressionTypeChecker)).getElementsTypes().size();
+            this.listSizes.put(list, size);
+        }
+        return size;
+    }
+
+    private int getListMemberIndex(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        Integer index = this.listMemberIndices.get(objectOrListMemberAccess);
+        if (index == null) {
+            ListType listType = (ListType) objectOrListMemberAccess.getInstance().accept(this.expressionTypeChecker);
+            String memberName = objectOrListMemberAccess.getMemberName().getName();
+            index = 0;
+            while (!listType.getElementsTypes().get(index).getName().getName().equals(memberName))
+                index++;
+            this.listMemberIndices.put(objectOrListMemberAccess, index);
+        }
+        return index;
+    }
+
+    private SophiaObject asObject(Object instance) {
+        if (instance == null)
+            throw new NullPointerException();
+        return (SophiaObject) instance;
+    }
+
+    //an interpreter value as the tier that is running sees it
+    private Object share(Object value) {
+        return this.tieredUp ? this.bytecodeTier.toCompiled(value) : value;
+    }
+
+    private boolean isList(Object value) {
+        return value instanceof SophiaList || this.tieredUp && this.bytecodeTier.isList(value);
+    }
+
+    private ArrayList<Object> getElements(Object list) {
+        if (this.tieredUp)
+            return this.bytecodeTier.getElements(list);
+        return ((SophiaList) list).getElements();
+    }
+
+    private Object copyList(Object list) {
+        if (this.tieredUp)
+            return this.bytecodeTier.copyList(list);
+        return ((SophiaList) list).copy();
+    }
+
+    //a field's value, or a pointer to the method of that name
+    private Object getMember(Object instance, String memberName) {
+        if (this.tieredUp)
+            return this.bytecodeTier.getMember(instance, memberName);
+        SophiaObject object = asObject(instance);
+        if (object.getFields().containsKey(memberName))
+            return object.getFields().get(memberName);
+        return new FunctionPointer(object, memberName);
+    }
+
+    private void setField(Object instance, String fieldName, Object value) {
+        if (this.tieredUp)
+            this.bytecodeTier.setField(instance, fieldName, value);
+        else
+            asObject(instance).getFields().put(fieldName, value);
+    }
+
+    private Object load(Expression lValue) {
+        return lValue.accept(this);
+    }
+
+    private void store(Expression lValue, Object value) {
+        if (lValue instanceof Identifier) {
+            this.locals.put(((Identifier) lValue).getName(), value);
+        }
+        else if (lValue instanceof ListAccessByIndex) {
+            ListAccessByIndex listAccessByIndex = (ListAccessByIndex) lValue;
+            Object list = listAccessByIndex.getInstance().accept(this);
+            int index = (Integer) listAccessByIndex.getIndex().accept(this);
+            getElements(list).set(index, share(value));
+        }
+        else if (lValue instanceof ObjectOrListMemberAccess) {
+            ObjectOrListMemberAccess objectOrListMemberAccess = (ObjectOrListMemberAccess) lValue;
+            Object instance = objectOrListMemberAccess.getInstance().accept(this);
+            if (isList(instance))
+                getElements(instance).set(getListMemberIndex(objectOrListMemberAccess), share(value));
+            else
+                setField(instance, objectOrListMemberAccess.getMemberName().getName(), value);
+        }
+    }
+
+    private Object incDec(Expression lValue, int delta, boolean returnsOldValue) {
+        int oldValue;
+        if (lValue instanceof ListAccessByIndex) {
+            ListAccessByIndex listAccessByIndex = (ListAccessByIndex) lValue;
+            Object list = listAccessByIndex.getInstance().accept(this);
+            int index = (Integer) listAccessByIndex.getIndex().accept(this);
+            ArrayList<Object> elements = getElements(list);
+            oldValue = (Integer) elements.get(index);
+            elements.set(index, oldValue + delta);
+        }
+        else if (lValue instanceof ObjectOrListMemberAccess) {
+            ObjectOrListMemberAccess objectOrListMemberAccess = (ObjectOrListMemberAccess) lValue;
+            Object instance = objectOrListMemberAccess.getInstance().accept(this);
+            if (isList(instance)) {
+                ArrayList<Object> elements = getElements(instance);
+                int index = getListMemberIndex(objectOrListMemberAccess);
+                oldValue = (Integer) elements.get(index);
+                elements.set(index, oldValue + delta);
+            }
+            else {
+                String fieldName = objectOrListMemberAccess.getMemberName().getName();
+                oldValue = (Integer) getMember(instance, fieldName);
+                setField(instance, fieldName, oldValue + delta);
+            }
+        }
+        else {
+            oldValue = (Integer) load(lValue);
+            store(lValue, oldValue + delta);
+        }
+        return returnsOldValue ? oldValue : oldValue + delta;
+    }
+
+    private static boolean areEqual(Object first, Object second) {
+        if (first instanceof Integer || first instanceof Boolean || first instanceof String)
+            return first.equals(second);
+        return first == second;
+    }
+
+    @Override
+    public Object visit(AssignmentStmt assignmentStmt) {
+        new BinaryExpression(assignmentStmt.getlValue(), assignmentStmt.getrValue(), BinaryOperator.assign).accept(this);
+        return null;
+    }
+
+    @Override
+    public Object visit(BlockStmt blockStmt) {
+        for (Statement statement : blockStmt.getStatements()) {
+            Object signal = statement.accept(this);
+            if (signal != null)
+                return signal;
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(ConditionalStmt conditionalStmt) {
+        if ((Boolean) conditionalStmt.getCondition().accept(this))
+            return conditionalStmt.getThenBody().accept(this);
+        if (conditionalStmt.getElseBody() != null)
+            return conditionalStmt.getElseBody().accept(this);
+        return null;
+    }
+
+    @Override
+    public Object visit(MethodCallStmt methodCallStmt) {
+        methodCallStmt.getMethodCall().accept(this);
+        return null;
+    }
+
+    @Override
+    public Object visit(PrintStmt print) {
+        System.out.print(print.getArg().accept(this));
+        return null;
+    }
+
+    @Override
+    public Object visit(ReturnStmt returnStmt) {
+        this.returnValue = returnStmt.getReturnedExpr().accept(this);
+        return RETURN;
+    }
+
+    @Override
+    public Object visit(BreakStmt breakStmt) {
+        return BREAK;
+    }
+
+    @Override
+    public Object visit(ContinueStmt continueStmt) {
+        return CONTINUE;
+    }
+
+    @Override
+    public Object visit(ForeachStmt foreachStmt) {
+        int size = getListSize(foreachStmt.getList());
+        String variableName = foreachStmt.getVariable().getName();
+        for (int i = 0; i < size; i++) {
+            this.locals.put(variableName, getElements(foreachStmt.getList().accept(this)).get(i));
+            Object signal = foreachStmt.getBody().accept(this);
+            if (signal == BREAK)
+                break;
+            if (signal == RETURN)
+                return signal;
+            this.currentCounters.countBackEdge();
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(ForStmt forStmt) {
+        if (forStmt.getInitialize() != null)
+            forStmt.getInitialize().accept(this);
+        while (forStmt.getCondition() == null || (Boolean) forStmt.getCondition().accept(this)) {
+            Object signal = forStmt.getBody() == null ? null : forStmt.getBody().accept(this);
+            if (signal == BREAK)
+                break;
+            if (signal == RETURN)
+                return signal;
+            this.currentCounters.countBackEdge();
+            if (forStmt.getUpdate() != null)
+                forStmt.getUpdate().accept(this);
+        }
+        return null;
+    }
+
+    @Override
+    public Object visit(BinaryExpression binaryExpression) {
+        BinaryOperator operator = binaryExpression.getBinaryOperator();
+        if (operator == BinaryOperator.assign) {
+            Object value = binaryExpression.getSecondOperand().accept(this);
+            if (isList(value))
+                value = copyList(value);
+            store(binaryExpression.getFirstOperand(), value);
+            return value;
+        }
+        Object first = binaryExpression.getFirstOperand().accept(this);
+        Object second = binaryExpression.getSecondOperand().accept(this);
+        if (operator == BinaryOperator.add)
+            return (Integer) first + (Integer) second;
+        else if (operator == BinaryOperator.sub)
+            return (Integer) first - (Integer) second;
+        else if (operator == BinaryOperator.mult)
+            return (Integer) first * (Integer) second;
+        else if (operator == BinaryOperator.div)
+            return (Integer) first / (Integer) second;
+        else if (operator == BinaryOperator.mod)
+            return (Integer) first % (Integer) second;
+        else if (operator == BinaryOperator.gt)
+            return (Integer) first > (Integer) second;
+        else if (operator == BinaryOperator.lt)
+            return (Integer) first < (Integer) second;
+        else if (operator == BinaryOperator.eq)
+            return areEqual(share(first), share(second));
+        else if (operator == BinaryOperator.neq)
+            return !areEqual(share(first), share(second));
+        else if (operator == BinaryOperator.and)
+            return (Boolean) first & (Boolean) second;
+        else
+            return (Boolean) first | (Boolean) second;
+    }
+
+    @Override
+    public Object visit(UnaryExpression unaryExpression) {
+        UnaryOperator operator = unaryExpression.getOperator();
+        if (operator == UnaryOperator.not)
+            return !(Boolean) unaryExpression.getOperand().accept(this);
+        else if (operator == UnaryOperator.minus)
+            return -(Integer) unaryExpression.getOperand().accept(this);
+        else if (operator == UnaryOperator.preinc)
+            return incDec(unaryExpression.getOperand(), 1, false);
+        else if (operator == UnaryOperator.postinc)
+            return incDec(unaryExpression.getOperand(), 1, true);
+        else if (operator == UnaryOperator.predec)
+            return incDec(unaryExpression.getOperand(), -1, false);
+        else
+            return incDec(unaryExpression.getOperand(), -1, true);
+    }
+
+    @Override
+    public Object visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        Object instance = objectOrListMemberAccess.getInstance().accept(this);
+        if (isList(instance))
+            return getElements(instance).get(getListMemberIndex(objectOrListMemberAccess));
+        return getMember(instance, objectOrListMemberAccess.getMemberName().getName());
+    }
+
+    @Override
+    public Object visit(Identifier identifier) {
+        return this.locals.get(identifier.getName());
+    }
+
+    @Override
+    public Object visit(ListAccessByIndex listAccessByIndex) {
+        Object list = listAccessByIndex.getInstance().accept(this);
+        int index = (Integer) listAccessByIndex.getIndex().accept(this);
+        //the index can be what tiers up, so the elements are only looked up once it is known
+        return getElements(list).get(index);
+    }
+
+    @Override
+    public Object visit(MethodCall methodCall) {
+        Object functionPointer = methodCall.getInstance().accept(this);
+        ArrayList<Object> args = new ArrayList<>();
+        for (Expression arg : methodCall.getArgs())
+            args.add(arg.accept(this));
+        if (functionPointer == null)
+            throw new NullPointerException();
+        return call(functionPointer, args);
+    }
+
+    @Override
+    public Object visit(NewClassInstance newClassInstance) {
+        ArrayList<Object> args = new ArrayList<>();
+        for (Expression arg : newClassInstance.getArgs())
+            args.add(arg.accept(this));
+        String className = newClassInstance.getClassType().getClassName().getName();
+        if (this.tieredUp)
+            return this.bytecodeTier.instantiate(className, args);
+        return instantiate(this.classes.get(className), args);
+    }
+
+    @Override
+    public Object visit(ThisClass thisClass) {
+        return this.currentObject;
+    }
+
+    @Override
+    public Object visit(ListValue listValue) {
+        ArrayList<Object> elements = new ArrayList<>(listValue.getElements().size());
+        for (Expression element : listValue.getElements()) {
+            Object value = element.accept(this);
+            elements.add(isList(value) ? copyList(value) : value);
+        }
+        if (this.tieredUp)
+            return this.bytecodeTier.newList(elements);
+        return new SophiaList(elements);
+    }
+
+    @Override
+    public Object visit(NullValue nullValue) {
+        return null;
+    }
+
+    @Override
+    public Object visit(IntValue intValue) {
+        return intValue.getConstant();
+    }
+
+    @Override
+    public Object visit(BoolValue boolValue) {
+        return boolValue.getConstant();
+    }
+
+    @Override
+    public Object visit(StringValue stringValue) {
+        return this.strings.computeIfAbsent(stringValue, key -> unescape(key.getConstant()));
+    }
+
+    //string constants keep their escapes in the tree and are unescaped by jasmin in the generated code
+    private static String unescape(String constant) {
+        StringBuilder builder = new StringBuilder(constant.length());
+        for (int i = 0; i < constant.length(); i++) {
+            char c = constant.charAt(i);
+            if (c != '\\' || i + 1 == constant.length()) {
+                builder.append(c);
+                continue;
+            }
+            c = constant.charAt(++i);
+            if (c == 'n')
+                builder.append('\n');
+            else if (c == 't')
+                builder.append('\t');
+            else if (c == 'r')
+                builder.append('\r');
+            else if (c == 'b')
+                builder.append('\b');
+            else if (c == 'f')
+                builder.append('\f');
+            else if (c == 'u' && i + 4 < constant.length()) {
+                builder.append((char) Integer.parseInt(constant.substring(i + 1, i + 5), 16));
+                i += 4;
+            }
+            else
+                builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package main.interpreter;
+
+public class MethodCounters {
+    private long invocations;
+    private long backEdges;
+
+    public void countInvocation() {
+        this.invocations++;
+    }
+
+    public void countBackEdge() {
+        this.backEdges++;
+    }
+
+    public boolean isHot(long threshold) {
+        return this.invocations + this.backEdges >= threshold;
+    }
+}
@@ -0,0 +1,34 @@
+package main.interpreter;
+
+import java.util.ArrayList;
+
+public class SophiaList {
+    private final ArrayList<Object> elements;
+
+    public SophiaList(ArrayList<Object> elements) {
+        this.elements = elements;
+    }
+
+    public ArrayList<Object> getElements() {
+        return elements;
+    }
+
+    public int size() {
+        return this.elements.size();
+    }
+
+    public Object get(int index) {
+        return this.elements.get(index);
+    }
+
+    public void set(int index, Object element) {
+        this.elements.set(index, element);
+    }
+
+    public SophiaList copy() {
+        ArrayList<Object> elements = new ArrayList<>(this.elements.size());
+        for (Object element : this.elements)
+            elements.add(element instanceof SophiaList ? ((SophiaList) element).copy() : element);
+        return new SophiaList(elements);
+    }
+}
@@ -0,0 +1,22 @@
+package main.interpreter;
+
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+
+import java.util.HashMap;
+
+public class SophiaObject {
+    private final ClassDeclaration classDeclaration;
+    private final HashMap<String, Object> fields = new HashMap<>();
+
+    public SophiaObject(ClassDeclaration classDeclaration) {
+        this.classDeclaration = classDeclaration;
+    }
+
+    public ClassDeclaration getClassDeclaration() {
+        return classDeclaration;
+    }
+
+    public HashMap<String, Object> getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,41 @@
+package main.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+//keeps the first limit bytes written to it and drops the rest
+public class BoundedOutputStream extends OutputStream {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final int limit;
+    private boolean truncated = false;
+
+    public BoundedOutputStream(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (this.buffer.size() < this.limit)
+            this.buffer.write(b);
+        else
+            this.truncated = true;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        int length = Math.min(len, this.limit - this.buffer.size());
+        if (length > 0)
+            this.buffer.write(b, off, length);
+        if (length < len)
+            this.truncated = true;
+    }
+
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return this.buffer.toString();
+    }
+}
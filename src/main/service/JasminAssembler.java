@@ -0,0 +1,57 @@
+package main.service;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+
+//assembles .j files in this jvm through jasmin's ClassFile instead of running jasmin.jar
+public class JasminAssembler {
+    private final Constructor<?> classFileConstructor;
+    private final Method readJasmin;
+    private final Method errorCount;
+    private final Method getClassName;
+    private final Method write;
+
+    public JasminAssembler(File jasminJar) throws IOException {
+        try {
+            ClassLoader jasminLoader = new URLClassLoader(new URL[] {jasminJar.toURI().toURL()}, ClassLoader.getPlatformClassLoader());
+            Class<?> classFile = jasminLoader.loadClass("jasmin.ClassFile");
+            this.classFileConstructor = classFile.getConstructor();
+            this.readJasmin = classFile.getMethod("readJasmin", Reader.class, String.class, boolean.class);
+            this.errorCount = classFile.getMethod("errorCount");
+            this.getClassName = classFile.getMethod("getClassName");
+            this.write = classFile.getMethod("write", OutputStream.class);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot load jasmin from " + jasminJar, e);
+        }
+    }
+
+    //jasmin's scanner keeps static state, so one directory is assembled at a time
+    public synchronized Map<String, byte[]> assemble(File directory) throws IOException {
+        Map<String, byte[]> classes = new HashMap<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".j"));
+        if (files == null)
+            throw new IOException("Cannot list " + directory);
+        for (File file : files) {
+            try (Reader reader = new BufferedReader(new FileReader(file))) {
+                Object classFile = this.classFileConstructor.newInstance();
+                this.readJasmin.invoke(classFile, reader, file.getName(), false);
+                if ((int) this.errorCount.invoke(classFile) > 0)
+                    throw new IOException(file.getName() + " has errors");
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                this.write.invoke(classFile, bytes);
+                classes.put(((String) this.getClassName.invoke(classFile)).replace('/', '.'), bytes.toByteArray());
+            } catch (InvocationTargetException e) {
+                throw new IOException(file.getName() + ": " + e.getCause().getMessage(), e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new IOException(file.getName(), e);
+            }
+        }
+        return classes;
+    }
+}
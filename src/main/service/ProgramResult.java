@@ -0,0 +1,35 @@
+package main.service;
+
+public class ProgramResult {
+    private final String name;
+    private final String output;
+    private final boolean outputTruncated;
+    private final String error;
+
+    public ProgramResult(String name, String output, boolean outputTruncated, String error) {
+        this.name = name;
+        this.output = output;
+        this.outputTruncated = outputTruncated;
+        this.error = error;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public boolean isOutputTruncated() {
+        return outputTruncated;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
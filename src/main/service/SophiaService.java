@@ -0,0 +1,99 @@
+package main.service;
+
+import main.CompilerOptions;
+import main.ProgramClassLoader;
+import main.SophiaCompiler;
+import org.antlr.v4.runtime.CharStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+//compiles and runs many programs in one jvm. every program is loaded by its own ProgramClassLoader,
+//so the runtime classes and their static state (such as Budget's limits) are per program
+public class SophiaService {
+    //the analyzers keep the current scope in static SymbolTable fields, so only execution is concurrent
+    private static final Object compilerLock = new Object();
+
+    private final CompilerOptions options;
+    private final ExecutorService executor;
+    private final JasminAssembler jasminAssembler;
+    private final ThreadOutputStream threadOutput;
+    private final PrintStream previousOut;
+
+    public SophiaService(CompilerOptions options) throws IOException {
+        this.options = options;
+        this.executor = Executors.newFixedThreadPool(options.getServiceThreads());
+        this.jasminAssembler = new JasminAssembler(new File("utilities/jarFiles/jasmin.jar"));
+        this.previousOut = System.out;
+        this.threadOutput = new ThreadOutputStream(System.out);
+        System.setOut(new PrintStream(this.threadOutput, true));
+    }
+
+    public Future<ProgramResult> submit(String name, CharStream textStream) {
+        return this.executor.submit(() -> run(name, textStream));
+    }
+
+    public void shutdown() throws InterruptedException {
+        this.executor.shutdown();
+        this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        System.setOut(this.previousOut);
+    }
+
+    private ProgramResult run(String name, CharStream textStream) {
+        BoundedOutputStream output = new BoundedOutputStream(this.options.getOutputBudgetKilobytes() * 1024);
+        this.threadOutput.redirect(output);
+        String error = null;
+        try {
+            Map<String, byte[]> classes = build(textStream);
+            if (classes == null)
+                error = "Compilation failed";
+            else
+                execute(classes);
+        } catch (InvocationTargetException e) {
+            error = e.getCause().toString();
+        } catch (Exception | LinkageError e) {
+            error = e.toString();
+        } finally {
+            System.out.flush();
+            this.threadOutput.reset();
+        }
+        return new ProgramResult(name, output.toString(), output.isTruncated(), error);
+    }
+
+    private Map<String, byte[]> build(CharStream textStream) throws IOException {
+        Path directory = Files.createTempDirectory("sophia");
+        try {
+            CompilerOptions programOptions = this.options.copy();
+            programOptions.setOutputDirectory(directory + File.separator);
+            programOptions.setBudgetChecksEnabled(true);
+            synchronized (compilerLock) {
+                if (!new SophiaCompiler(programOptions).generateCode(textStream))
+                    return null;
+            }
+            return this.jasminAssembler.assemble(directory.toFile());
+        } finally {
+            File[] files = directory.toFile().listFiles();
+            if (files != null)
+                for (File file : files)
+                    file.delete();
+            directory.toFile().delete();
+        }
+    }
+
+    private void execute(Map<String, byte[]> classes) throws ReflectiveOperationException {
+        ProgramClassLoader programClassLoader = new ProgramClassLoader(classes);
+        programClassLoader.loadClass("Budget").getMethod("start", long.class, long.class).invoke(null,
+                TimeUnit.MILLISECONDS.toNanos(this.options.getCpuBudgetMillis()),
+                this.options.getAllocationBudgetMegabytes() * 1024 * 1024);
+        programClassLoader.loadClass("Main").getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+    }
+}
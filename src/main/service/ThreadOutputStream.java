@@ -0,0 +1,42 @@
+package main.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+//sends writes to the stream registered for the writing thread, or to the default stream
+public class ThreadOutputStream extends OutputStream {
+    private final OutputStream defaultStream;
+    private final ThreadLocal<OutputStream> streams = new ThreadLocal<>();
+
+    public ThreadOutputStream(OutputStream defaultStream) {
+        this.defaultStream = defaultStream;
+    }
+
+    public void redirect(OutputStream stream) {
+        this.streams.set(stream);
+    }
+
+    public void reset() {
+        this.streams.remove();
+    }
+
+    private OutputStream getStream() {
+        OutputStream stream = this.streams.get();
+        return stream == null ? this.defaultStream : stream;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        getStream().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        getStream().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        getStream().flush();
+    }
+}
@@ -6,9 +6,8 @@ import main.symbolTable.exceptions.ItemNotFoundException;
 import main.symbolTable.items.SymbolTableItem;
 import main.symbolTable.utils.stack.Stack;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 
@@ -20,6 +19,7 @@ public class SymbolTable {
     public static SymbolTable top;
     public static SymbolTable root;
     private static Stack<SymbolTable> stack = new Stack<>();
+    private static final int MAX_UNTRACKED_DEPTH = 64;
 
     public static void push(SymbolTable symbolTable) {
         if (top != null)
@@ -34,7 +34,12 @@ public class SymbolTable {
     //End of static members
 
     public SymbolTable pre;
-    private Map<String, SymbolTableItem> items;
+    //an open addressing table from item keys to items, with linear probing and at most half of it full
+    private int[] keys;
+    private SymbolTableItem[] items;
+    private int size = 0;
+    //set by freeze(): this table's items and everything it inherits below the global scope, which is its pre
+    private SymbolTable flattened;
 
     public SymbolTable() {
         this(null);
@@ -42,30 +47,113 @@ public class SymbolTable {
 
     public SymbolTable(SymbolTable pre) {
         this.pre = pre;
-        this.items = new HashMap<>();
+        this.keys = new int[8];
+        this.items = new SymbolTableItem[8];
+    }
+
+    private int getSlot(int key) {
+        int mask = this.keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while(this.items[slot] != null && this.keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = this.keys;
+        SymbolTableItem[] oldItems = this.items;
+        this.keys = new int[oldKeys.length * 2];
+        this.items = new SymbolTableItem[oldItems.length * 2];
+        for(int i = 0; i < oldItems.length; i++)
+            if(oldItems[i] != null) {
+                int slot = getSlot(oldKeys[i]);
+                this.keys[slot] = oldKeys[i];
+                this.items[slot] = oldItems[i];
+            }
+    }
+
+    private boolean putIfAbsent(int key, SymbolTableItem item) {
+        int slot = getSlot(key);
+        if (items[slot] != null)
+            return false;
+        keys[slot] = key;
+        items[slot] = item;
+        if (++size * 2 > keys.length)
+            grow();
+        return true;
     }
 
     public void put(SymbolTableItem item) throws ItemAlreadyExistsException {
-        if (items.containsKey(item.getKey()))
+        if (flattened != null)
+            throw new IllegalStateException("Symbol table is frozen");
+        if (!putIfAbsent(item.getKey(), item))
             throw new ItemAlreadyExistsException();
-        items.put(item.getKey(), item);
     }
 
-    public SymbolTableItem getItem(String key, Boolean searchCurrent) throws ItemNotFoundException {
+    private void putAllAbsent(SymbolTable symbolTable) {
+        for (int i = 0; i < symbolTable.items.length; i++)
+            if (symbolTable.items[i] != null)
+                putIfAbsent(symbolTable.keys[i], symbolTable.items[i]);
+    }
+
+    //copies what this table inherits into one table, once the tables are linked and filled. the global scope
+    //is left out (a flattened table goes on to it), and a table whose chain loops is left as it is, since a
+    //lookup that starts inside the loop must stop where it started
+    public void freeze() {
+        ArrayList<SymbolTable> chain = new ArrayList<>();
         Set<SymbolTable> visitedSymbolTables = new HashSet<>();
         SymbolTable currentSymbolTable = this;
-        if(!searchCurrent) {
-            visitedSymbolTables.add(this);
-            currentSymbolTable = this.pre;
+        while(currentSymbolTable != null && currentSymbolTable != root && currentSymbolTable.flattened == null) {
+            if(!visitedSymbolTables.add(currentSymbolTable))
+                return;
+            chain.add(currentSymbolTable);
+            currentSymbolTable = currentSymbolTable.pre;
         }
-        while((currentSymbolTable != null) && (!visitedSymbolTables.contains(currentSymbolTable))) {
-            visitedSymbolTables.add( currentSymbolTable );
-            SymbolTableItem symbolTableItem = currentSymbolTable.items.get(key);
+        for(int i = chain.size() - 1; i >= 0; i--) {
+            SymbolTable symbolTable = chain.get(i);
+            SymbolTable flattened = new SymbolTable(symbolTable.pre);
+            flattened.putAllAbsent(symbolTable);
+            if(symbolTable.pre != null && symbolTable.pre.flattened != null) {
+                flattened.putAllAbsent(symbolTable.pre.flattened);
+                flattened.pre = symbolTable.pre.flattened.pre;
+            }
+            symbolTable.flattened = flattened;
+        }
+    }
+
+    private SymbolTableItem getOwnItem(int key) {
+        return this.items[getSlot(key)];
+    }
+
+    //null when there is no such item, for lookups where a missing item is a normal outcome. the chain of
+    //tables only loops with cyclic inheritance, so the visited tables are tracked once the chain gets long
+    public SymbolTableItem lookup(int key, boolean searchCurrent) {
+        Set<SymbolTable> visitedSymbolTables = null;
+        SymbolTable currentSymbolTable = searchCurrent ? this : this.pre;
+        for(int depth = 0; currentSymbolTable != null; depth++) {
+            if(currentSymbolTable == this && !searchCurrent)
+                break;
+            if(depth >= MAX_UNTRACKED_DEPTH) {
+                if(visitedSymbolTables == null)
+                    visitedSymbolTables = new HashSet<>();
+                if(!visitedSymbolTables.add(currentSymbolTable))
+                    break;
+            }
+            SymbolTable ownSymbolTable = currentSymbolTable.flattened != null ? currentSymbolTable.flattened : currentSymbolTable;
+            SymbolTableItem symbolTableItem = ownSymbolTable.getOwnItem(key);
             if( symbolTableItem != null )
                 return symbolTableItem;
-            currentSymbolTable = currentSymbolTable.pre;
+            currentSymbolTable = ownSymbolTable.pre;
         }
-        throw new ItemNotFoundException();
+        return null;
+    }
+
+    public SymbolTableItem getItem(int key, Boolean searchCurrent) throws ItemNotFoundException {
+        SymbolTableItem symbolTableItem = this.lookup(key, searchCurrent);
+        if(symbolTableItem == null)
+            throw new ItemNotFoundException();
+        return symbolTableItem;
     }
 
 }
@@ -2,4 +2,8 @@ package main.symbolTable.exceptions;
 
 
 public class ItemNotFoundException extends Exception {
+    //thrown for undeclared names, so no stack trace is needed
+    public ItemNotFoundException() {
+        super(null, null, false, false);
+    }
 }
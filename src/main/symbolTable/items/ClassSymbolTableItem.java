@@ -2,10 +2,11 @@ package main.symbolTable.items;
 
 
 import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.expression.Identifier;
 import main.symbolTable.SymbolTable;
 
 public class ClassSymbolTableItem extends SymbolTableItem {
-    public static final String START_KEY = "Class_";
+    private static final int KIND = 0;
     private SymbolTable classSymbolTable;
     private ClassDeclaration classDeclaration;
 
@@ -30,8 +31,16 @@ public class ClassSymbolTableItem extends SymbolTableItem {
         this.classDeclaration = classDeclaration;
     }
 
+    public static int keyOf(Identifier name) {
+        return makeKey(name.getNameId(), KIND);
+    }
+
+    public static int keyOf(String name) {
+        return makeKey(name, KIND);
+    }
+
     @Override
-    public String getKey() {
-        return START_KEY + this.name;
+    public int getKey() {
+        return makeKey(this.name, KIND);
     }
 }
@@ -2,10 +2,11 @@ package main.symbolTable.items;
 
 
 import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.expression.Identifier;
 import main.ast.types.Type;
 
 public class FieldSymbolTableItem extends SymbolTableItem {
-    public static String START_KEY = "Field_";
+    private static final int KIND = 2;
     protected Type type;
 
     public FieldSymbolTableItem(FieldDeclaration fieldDeclaration) {
@@ -13,8 +14,16 @@ public class FieldSymbolTableItem extends SymbolTableItem {
         this.type = fieldDeclaration.getVarDeclaration().getType();
     }
 
-    public String getKey() {
-        return START_KEY + this.name;
+    public static int keyOf(Identifier name) {
+        return makeKey(name.getNameId(), KIND);
+    }
+
+    public static int keyOf(String name) {
+        return makeKey(name, KIND);
+    }
+
+    public int getKey() {
+        return makeKey(this.name, KIND);
     }
 
     public Type getType() {
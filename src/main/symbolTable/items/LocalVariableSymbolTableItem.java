@@ -2,10 +2,11 @@ package main.symbolTable.items;
 
 
 import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.Identifier;
 import main.ast.types.Type;
 
 public class LocalVariableSymbolTableItem extends SymbolTableItem {
-    public static String START_KEY = "Var_";
+    private static final int KIND = 3;
     protected Type type;
 
     public LocalVariableSymbolTableItem(VarDeclaration varDeclaration) {
@@ -13,8 +14,16 @@ public class LocalVariableSymbolTableItem extends SymbolTableItem {
         this.type = varDeclaration.getType();
     }
 
-    public String getKey() {
-        return START_KEY + this.name;
+    public static int keyOf(Identifier name) {
+        return makeKey(name.getNameId(), KIND);
+    }
+
+    public static int keyOf(String name) {
+        return makeKey(name, KIND);
+    }
+
+    public int getKey() {
+        return makeKey(this.name, KIND);
     }
 
     public Type getType() {
@@ -3,13 +3,14 @@ package main.symbolTable.items;
 
 import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
 import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.Identifier;
 import main.ast.types.Type;
 import main.symbolTable.SymbolTable;
 
 import java.util.ArrayList;
 
 public class MethodSymbolTableItem extends SymbolTableItem {
-    public static final String START_KEY = "Method_";
+    private static final int KIND = 1;
     private MethodDeclaration methodDeclaration;
     private Type returnType;
     private ArrayList<Type> argTypes = new ArrayList<>();
@@ -56,9 +57,17 @@ public class MethodSymbolTableItem extends SymbolTableItem {
         this.methodSymbolTable = methodSymbolTable;
     }
 
+    public static int keyOf(Identifier name) {
+        return makeKey(name.getNameId(), KIND);
+    }
+
+    public static int keyOf(String name) {
+        return makeKey(name, KIND);
+    }
+
     @Override
-    public String getKey() {
-        return START_KEY + this.name;
+    public int getKey() {
+        return makeKey(this.name, KIND);
     }
 
 }
@@ -1,10 +1,22 @@
 package main.symbolTable.items;
 
+import main.symbolTable.utils.interner.NameInterner;
+
 public abstract class SymbolTableItem {
+    private static final int KINDS = 4;
 
     protected String name;
 
-    public abstract String getKey();
+    //the key of a name of one kind of item: its interned name id with the kind in the low bits
+    protected static int makeKey(int nameId, int kind) {
+        return nameId * KINDS + kind;
+    }
+
+    protected static int makeKey(String name, int kind) {
+        return makeKey(NameInterner.getId(name), kind);
+    }
+
+    public abstract int getKey();
 
     public String getName() {
         return name;
@@ -0,0 +1,31 @@
+package main.symbolTable.utils.interner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+//gives every distinct name a dense id that stays the same for the whole compile, so symbol tables can be keyed
+//by ints. the name of an id is the one string every identifier with that name shares. ids are only meaningful
+//until the next clear(), which the compiler calls before it parses a program
+public class NameInterner {
+    private static HashMap<String, Integer> ids = new HashMap<>();
+    private static ArrayList<String> names = new ArrayList<>();
+
+    public static synchronized int getId(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    public static synchronized String getName(int id) {
+        return names.get(id);
+    }
+
+    public static synchronized void clear() {
+        ids = new HashMap<>();
+        names = new ArrayList<>();
+    }
+}
@@ -0,0 +1,31 @@
+package main.visitor;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+
+import java.util.Collections;
+import java.util.List;
+
+//an analysis run by PassManager. it is called once before the classes, once for every class and once after them
+public interface Pass {
+    String getName();
+
+    //passes whose results this one reads, so they finish over the whole program before it starts
+    default List<String> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    //passes whose errors make this one's meaningless, so its errors only count when these have none
+    default List<String> getGuards() {
+        return Collections.emptyList();
+    }
+
+    default void begin(Program program) {
+    }
+
+    default void visitClass(ClassDeclaration classDeclaration) {
+    }
+
+    default void end(Program program) {
+    }
+}
@@ -0,0 +1,138 @@
+package main.visitor;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.compileErrorException.CompileErrorException;
+import main.compileErrorException.Diagnostics;
+import main.compileErrorException.TooManyErrorsException;
+
+import java.util.*;
+
+//runs passes in stages: a pass is in the first stage after all of its dependencies, and the passes of a stage
+//share one loop over the classes (in the order they were added), so each class is checked by all of them while
+//its nodes are still in cache. a guarded pass runs speculatively next to its guards and stops, with its errors
+//dropped, as soon as one of them reports an error
+public class PassManager {
+    private final ArrayList<Pass> passes = new ArrayList<>();
+    private final HashMap<String, Pass> passesByName = new HashMap<>();
+    private final HashMap<Pass, Diagnostics> diagnostics = new HashMap<>();
+    private final HashSet<Pass> stoppedPasses = new HashSet<>();
+    private final int maxErrors;
+
+    //0 for no limit on the number of errors
+    public PassManager(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void add(Pass pass) {
+        if (this.passesByName.put(pass.getName(), pass) != null)
+            throw new IllegalArgumentException("Pass " + pass.getName() + " is added twice");
+        this.passes.add(pass);
+        this.diagnostics.put(pass, new Diagnostics(this.maxErrors));
+    }
+
+    private Pass getPass(String name) {
+        Pass pass = this.passesByName.get(name);
+        if (pass == null)
+            throw new IllegalStateException("Pass " + name + " is not added");
+        return pass;
+    }
+
+    private int getStage(Pass pass, HashMap<Pass, Integer> stages, Set<Pass> visiting) {
+        Integer stage = stages.get(pass);
+        if (stage != null)
+            return stage;
+        if (!visiting.add(pass))
+            throw new IllegalStateException("Pass " + pass.getName() + " depends on itself");
+        stage = 0;
+        for (String dependency : pass.getDependencies())
+            stage = Math.max(stage, getStage(getPass(dependency), stages, visiting) + 1);
+        for (String guard : pass.getGuards())
+            getPass(guard);
+        visiting.remove(pass);
+        stages.put(pass, stage);
+        return stage;
+    }
+
+    private ArrayList<ArrayList<Pass>> getStages() {
+        HashMap<Pass, Integer> stageNumbers = new HashMap<>();
+        ArrayList<ArrayList<Pass>> stages = new ArrayList<>();
+        for (Pass pass : this.passes) {
+            int stage = getStage(pass, stageNumbers, new HashSet<>());
+            while (stages.size() <= stage)
+                stages.add(new ArrayList<>());
+        }
+        for (Pass pass : this.passes)
+            stages.get(stageNumbers.get(pass)).add(pass);
+        return stages;
+    }
+
+    private boolean isGuardFailed(Pass pass) {
+        for (String guard : pass.getGuards())
+            if (this.diagnostics.get(getPass(guard)).hasErrors())
+                return true;
+        return false;
+    }
+
+    private boolean isRunning(Pass pass) {
+        return !this.stoppedPasses.contains(pass) && !isGuardFailed(pass);
+    }
+
+    private void call(Pass pass, Runnable step) {
+        if (!isRunning(pass))
+            return;
+        Diagnostics.current = this.diagnostics.get(pass);
+        try {
+            step.run();
+        } catch (TooManyErrorsException e) {
+            stop(pass);
+        }
+    }
+
+    //the passes that read its results are stopped too, since they would see a half analyzed program
+    private void stop(Pass pass) {
+        if (!this.stoppedPasses.add(pass))
+            return;
+        for (Pass other : this.passes)
+            if (other.getDependencies().contains(pass.getName()))
+                stop(other);
+    }
+
+    public void run(Program program) {
+        for (ArrayList<Pass> stage : getStages()) {
+            for (Pass pass : stage)
+                call(pass, () -> pass.begin(program));
+            for (ClassDeclaration classDeclaration : program.getClasses())
+                for (Pass pass : stage)
+                    call(pass, () -> pass.visitClass(classDeclaration));
+            for (Pass pass : stage)
+                call(pass, () -> pass.end(program));
+        }
+    }
+
+    private ArrayList<CompileErrorException> getReportedErrors() {
+        ArrayList<CompileErrorException> errors = new ArrayList<>();
+        for (Pass pass : this.passes)
+            if (!isGuardFailed(pass))
+                errors.addAll(this.diagnostics.get(pass).getErrors());
+        return errors;
+    }
+
+    public boolean hasErrors() {
+        return !getReportedErrors().isEmpty();
+    }
+
+    public boolean isLimitReached() {
+        return this.maxErrors > 0 && getReportedErrors().size() >= this.maxErrors;
+    }
+
+    //the errors of every pass whose guards found none, the first maxErrors of them in pass order, sorted by
+    //line (the sort is stable, so errors on one line keep their order)
+    public List<CompileErrorException> getErrors() {
+        ArrayList<CompileErrorException> errors = getReportedErrors();
+        List<CompileErrorException> reported = this.maxErrors > 0 && errors.size() > this.maxErrors
+                ? new ArrayList<>(errors.subList(0, this.maxErrors)) : errors;
+        reported.sort(Comparator.comparingInt(CompileErrorException::getLine));
+        return reported;
+    }
+}
@@ -1,5 +1,7 @@
 package main.visitor.codeGenerator;
 
+import main.CompilerOptions;
+import main.ast.nodes.Node;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.classDec.ClassDeclaration;
 import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
@@ -29,7 +31,6 @@ import main.ast.types.single.ClassType;
 import main.ast.types.single.IntType;
 import main.ast.types.single.StringType;
 import main.symbolTable.SymbolTable;
-import main.symbolTable.exceptions.ItemNotFoundException;
 import main.symbolTable.items.ClassSymbolTableItem;
 import main.symbolTable.items.FieldSymbolTableItem;
 import main.symbolTable.items.LocalVariableSymbolTableItem;
@@ -40,38 +41,96 @@ import main.visitor.typeChecker.ExpressionTypeChecker;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 public class CodeGenerator extends Visitor<String> {
+    private static final String CLASS_FILE_VERSION = "55.0";
+
     ExpressionTypeChecker expressionTypeChecker;
     Graph<String> classHierarchy;
+    private final CompilerOptions options;
+    private MethodInliner methodInliner;
+    private final TupleClassGenerator tupleClassGenerator;
+    private final ProfileCounters profileCounters = new ProfileCounters();
+    private final Set<String> emittedClasses;
     private String outputPath;
+    private String sourceFileName;
     private FileWriter currentFile;
+    private ArrayList<String> currentMethodCommands;
+    private String currentClassName;
     private ClassDeclaration currentClass;
     private MethodDeclaration currentMethod;
 
     private int labelCounter;
+    private String methodEntryLabel;
+    private String profiledMethodName;
+    private int currentLine;
     private final ArrayList<ArrayList<String>> labelsStack;
 
-    private final ArrayList<String> currentSlots;
+    private final HashMap<String, Integer> currentSlots;
+    private int firstTempSlot;
     private int tempVarNumber;
 
+    private HashMap<String, Integer> inlinedArgSlots;
+    private int thisSlot;
+
     public CodeGenerator(Graph<String> classHierarchy) {
+        this(classHierarchy, new CompilerOptions());
+    }
+
+    public CodeGenerator(Graph<String> classHierarchy, CompilerOptions options) {
+        this(classHierarchy, options, null);
+    }
+
+    //with emittedClasses set, only those classes are generated and the rest of the output folder is kept
+    public CodeGenerator(Graph<String> classHierarchy, CompilerOptions options, Set<String> emittedClasses) {
         this.classHierarchy = classHierarchy;
+        this.options = options;
+        this.emittedClasses = emittedClasses;
+        this.tupleClassGenerator = new TupleClassGenerator(options.isSpecializedListsEnabled());
         this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
         this.labelsStack = new ArrayList<>();
-        this.currentSlots = new ArrayList<>();
+        this.currentSlots = new HashMap<>();
+        this.inlinedArgSlots = new HashMap<>();
         this.prepareOutputFolder();
     }
 
+    public void setSourceFileName(String sourceFileName) {
+        this.sourceFileName = sourceFileName;
+    }
+
+    public Map<String, String> getTupleClassNames() {
+        return this.tupleClassGenerator.getTupleClassNames();
+    }
+
+    public void setTupleClassNames(Map<String, String> tupleClassNames) {
+        this.tupleClassGenerator.setTupleClassNames(tupleClassNames);
+    }
+
+    public ArrayList<String> getInliningReport() {
+        return this.methodInliner.getReport();
+    }
+
     private void prepareOutputFolder() {
-        this.outputPath = "output/";
+        this.outputPath = this.options.getOutputDirectory();
         String jasminPath = "utilities/jarFiles/jasmin.jar";
         String listClassPath = "utilities/codeGenerationUtilityClasses/List.j";
         String fptrClassPath = "utilities/codeGenerationUtilityClasses/Fptr.j";
+        String flatListClassPath = "utilities/codeGenerationUtilityClasses/FlatList.j";
+        String offHeapListClassPath = "utilities/codeGenerationUtilityClasses/OffHeapList.j";
+        String budgetClassPath = "utilities/codeGenerationUtilityClasses/Budget.j";
+        String sophiaOutClassPath = "utilities/codeGenerationUtilityClasses/SophiaOut.j";
+        String profileClassPath = "utilities/codeGenerationUtilityClasses/Profile.j";
+        String listCopyEventClassPath = "utilities/codeGenerationUtilityClasses/ListCopyEvent.j";
+        String methodResolutionEventClassPath = "utilities/codeGenerationUtilityClasses/MethodResolutionEvent.j";
+        String methodInvocationEventClassPath = "utilities/codeGenerationUtilityClasses/MethodInvocationEvent.j";
+        String largeListAllocationEventClassPath = "utilities/codeGenerationUtilityClasses/LargeListAllocationEvent.j";
         try{
             File directory = new File(this.outputPath);
             File[] files = directory.listFiles();
-            if(files != null)
+            if(files != null && this.emittedClasses == null)
                 for (File file : files)
                     file.delete();
             directory.mkdir();
@@ -80,12 +139,26 @@ public class CodeGenerator extends Visitor<String> {
         copyFile(jasminPath, this.outputPath + "jasmin.jar");
         copyFile(listClassPath, this.outputPath + "List.j");
         copyFile(fptrClassPath, this.outputPath + "Fptr.j");
+        copyFile(flatListClassPath, this.outputPath + "FlatList.j");
+        copyFile(sophiaOutClassPath, this.outputPath + "SophiaOut.j");
+        copyFile(listCopyEventClassPath, this.outputPath + "ListCopyEvent.j");
+        copyFile(methodResolutionEventClassPath, this.outputPath + "MethodResolutionEvent.j");
+        copyFile(methodInvocationEventClassPath, this.outputPath + "MethodInvocationEvent.j");
+        copyFile(largeListAllocationEventClassPath, this.outputPath + "LargeListAllocationEvent.j");
+        if (this.options.isProfilingEnabled())
+            copyFile(profileClassPath, this.outputPath + "Profile.j");
+        if (this.options.isOffHeapListsEnabled())
+            copyFile(offHeapListClassPath, this.outputPath + "OffHeapList.j");
+        if (this.options.isBudgetChecksEnabled())
+            copyFile(budgetClassPath, this.outputPath + "Budget.j");
     }
 
     private void copyFile(String toBeCopied, String toBePasted) {
         try {
             File readingFile = new File(toBeCopied);
             File writingFile = new File(toBePasted);
+            if (this.emittedClasses != null && writingFile.lastModified() >= readingFile.lastModified())
+                return;
             InputStream readingFileStream = new FileInputStream(readingFile);
             OutputStream writingFileStream = new FileOutputStream(writingFile);
             byte[] buffer = new byte[1024];
@@ -108,9 +181,31 @@ public class CodeGenerator extends Visitor<String> {
     }
 
     private void addCommand(String command) {
+        for (String line : command.split("\n")) {
+            if (line.startsWith(".method"))
+                this.currentMethodCommands = new ArrayList<>();
+            if (this.currentMethodCommands == null) {
+                writeCommand(line);
+                continue;
+            }
+            if (this.profiledMethodName != null && ProfileCounters.getCountedKind(line) != null)
+                addProfileCounter(ProfileCounters.getCountedKind(line));
+            this.currentMethodCommands.add(line);
+            if (line.equals(".end method")) {
+                StackMapFrameComputer frameComputer = new StackMapFrameComputer(this.currentMethodCommands,
+                        this.currentClassName, this.classHierarchy, this::getNewLabel);
+                for (String methodLine : frameComputer.compute())
+                    writeCommand(methodLine);
+                this.currentMethodCommands = null;
+            }
+        }
+    }
+
+    private void writeCommand(String command) {
         try {
-            command = String.join("\n\t\t", command.split("\n"));
-            if(command.startsWith("Label_"))
+            if(command.equals(""))
+                this.currentFile.write("\n");
+            else if(command.startsWith("Label_"))
                 this.currentFile.write("\t" + command + "\n");
             else if(command.startsWith("."))
                 this.currentFile.write(command + "\n");
@@ -127,6 +222,26 @@ public class CodeGenerator extends Visitor<String> {
         } catch (IOException ignored) {}
     }
 
+    //every loop iteration passes a loop condition and every call or self tail call the method entry
+    private void addLineNumber(Node node) {
+        this.currentLine = node.getLine();
+        if (node.getLine() > 0)
+            addCommand(".line " + node.getLine());
+    }
+
+    private void addProfileCounter(String kind) {
+        if (!this.options.isProfilingEnabled())
+            return;
+        int siteId = this.profileCounters.getSiteId(kind, this.currentClassName, this.profiledMethodName, this.currentLine);
+        addCommand("ldc " + siteId);
+        addCommand("invokestatic Profile/count(I)V");
+    }
+
+    private void addBudgetCheck() {
+        if (this.options.isBudgetChecksEnabled())
+            addCommand("invokestatic Budget/check()V");
+    }
+
     private void pushLabels(String nAfter, String nBrk, String nCont) {
         ArrayList<String> newLabels = new ArrayList<>(3);
         newLabels.add(nAfter);
@@ -250,6 +365,212 @@ public class CodeGenerator extends Visitor<String> {
         return true;
     }
 
+    private String castListElement(Type elementType) {
+        String commands = "";
+        if (elementType instanceof BoolType) {
+            commands += "checkcast java/lang/Boolean\n";
+            commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
+        }
+        else if (elementType instanceof ClassType) {
+            commands += "checkcast " + ((ClassType)elementType).getClassName().getName() + "\n";
+        }
+        else if (elementType instanceof IntType) {
+            commands += "checkcast java/lang/Integer\n";
+            commands += "invokevirtual java/lang/Integer/intValue()I\n";
+        }
+        else if (elementType instanceof ListType) {
+            commands += "checkcast List\n";
+        }
+        else if (elementType instanceof FptrType) {
+            commands += "checkcast Fptr\n";
+        }
+        else if (elementType instanceof StringType) {
+            commands += "checkcast java/lang/String\n";
+        }
+        return commands;
+    }
+
+    private boolean isTupleIndex(ListType listType, Expression index) {
+        return this.tupleClassGenerator.getTupleClassName(listType) != null && index instanceof IntValue
+                && ((IntValue) index).getConstant() >= 0
+                && ((IntValue) index).getConstant() < listType.getElementsTypes().size();
+    }
+
+    private String getListElement(ListType listType, int index) {
+        String commands = "";
+        Type elementType = listType.getElementsTypes().get(index).getType();
+        String tupleClassName = this.tupleClassGenerator.getTupleClassName(listType);
+        if (tupleClassName == null) {
+            commands += "ldc " + index + "\n";
+            commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
+            commands += castListElement(elementType);
+            return commands;
+        }
+        String descriptor = TupleClassGenerator.getFieldDescriptor(elementType);
+        commands += "checkcast " + tupleClassName + "\n";
+        commands += "getfield " + tupleClassName + "/" + TupleClassGenerator.getFieldName(index) + " " + descriptor + "\n";
+        if (descriptor.equals("Ljava/lang/Object;"))
+            commands += castListElement(elementType);
+        return commands;
+    }
+
+    private String setListElement(ListType listType, int index, int valueSlot) {
+        String commands = "";
+        String tupleClassName = this.tupleClassGenerator.getTupleClassName(listType);
+        if (tupleClassName == null) {
+            commands += "ldc " + index + "\n";
+            commands += "aload" + underlineOrSpace(valueSlot) + valueSlot + "\n";
+            commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+            return commands;
+        }
+        String descriptor = TupleClassGenerator.getFieldDescriptor(listType.getElementsTypes().get(index).getType());
+        commands += "checkcast " + tupleClassName + "\n";
+        commands += "aload" + underlineOrSpace(valueSlot) + valueSlot + "\n";
+        commands += String.join("\n", TupleClassGenerator.unboxToField(descriptor)) + "\n";
+        commands += "putfield " + tupleClassName + "/" + TupleClassGenerator.getFieldName(index) + " " + descriptor + "\n";
+        return commands;
+    }
+
+    private String storeListElement(ListAccessByIndex listAccessByIndex, int valueSlot) {
+        String commands = "";
+        Expression flatListRoot = getFlatListRoot(listAccessByIndex);
+        if (flatListRoot != null) {
+            commands += getFlatListAddress(listAccessByIndex, flatListRoot);
+            commands += "aload" + underlineOrSpace(valueSlot) + valueSlot + "\n";
+            commands += castListElement(new IntType());
+            commands += "iastore\n";
+            return commands;
+        }
+        ListType listType = (ListType) listAccessByIndex.getInstance().accept(this.expressionTypeChecker);
+        commands += listAccessByIndex.getInstance().accept(this);
+        if (isTupleIndex(listType, listAccessByIndex.getIndex()))
+            return commands + setListElement(listType, ((IntValue) listAccessByIndex.getIndex()).getConstant(), valueSlot);
+        commands += listAccessByIndex.getIndex().accept(this);
+        commands += "aload" + underlineOrSpace(valueSlot) + valueSlot + "\n";
+        commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+        return commands;
+    }
+
+    private String incDecListElement(Expression instance, ListType listType, int index, int delta, boolean returnsOldValue) {
+        String commands = "";
+        this.tempVarNumber++;
+        int tempSlotInstance = slotOf("");
+        this.tempVarNumber++;
+        int tempSlotResult = slotOf("");
+
+        commands += instance.accept(this);
+        commands += "astore" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
+        commands += "aload" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
+        commands += getListElement(listType, index);
+        commands += "ldc " + delta + "\n";
+        commands += "iadd\n";
+        commands += "istore" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
+
+        commands += "aload" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
+        String tupleClassName = this.tupleClassGenerator.getTupleClassName(listType);
+        if (tupleClassName != null) {
+            commands += "checkcast " + tupleClassName + "\n";
+            commands += "iload" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
+            commands += "putfield " + tupleClassName + "/" + TupleClassGenerator.getFieldName(index) + " I\n";
+        }
+        else {
+            commands += "ldc " + index + "\n";
+            commands += "new java/lang/Integer\n";
+            commands += "dup\n";
+            commands += "iload" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
+            commands += "invokespecial java/lang/Integer/<init>(I)V\n";
+            commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+        }
+
+        commands += "iload" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
+        if (returnsOldValue) {
+            commands += "ldc " + (-delta) + "\n";
+            commands += "iadd\n";
+        }
+        this.tempVarNumber -= 2;
+        return commands;
+    }
+
+    private String newFlatList(ArrayList<Integer> dimensions) {
+        String commands = "";
+        commands += "new FlatList\n";
+        commands += "dup\n";
+        commands += "ldc " + dimensions.size() + "\n";
+        commands += "newarray int\n";
+        for (int i = 0; i < dimensions.size(); i++) {
+            commands += "dup\n";
+            commands += "ldc " + i + "\n";
+            commands += "ldc " + dimensions.get(i) + "\n";
+            commands += "iastore\n";
+        }
+        commands += "invokespecial FlatList/<init>([I)V\n";
+        return commands;
+    }
+
+    //the outermost flat list that listAccessByIndex indexes all the way down to an int element
+    private Expression getFlatListRoot(ListAccessByIndex listAccessByIndex) {
+        if (!this.options.isSpecializedListsEnabled())
+            return null;
+        Expression root = null;
+        Expression instance = listAccessByIndex;
+        int depth = 0;
+        while (instance instanceof ListAccessByIndex) {
+            instance = ((ListAccessByIndex) instance).getInstance();
+            depth++;
+            ArrayList<Integer> dimensions = FlatListLayout.getDimensions(instance.accept(expressionTypeChecker));
+            if (dimensions == null)
+                break;
+            if (dimensions.size() == depth && depth >= 2)
+                root = instance;
+        }
+        return root;
+    }
+
+    //leaves the backing int[] and the element offset on the stack
+    private String getFlatListAddress(ListAccessByIndex listAccessByIndex, Expression root) {
+        String commands = "";
+        ArrayList<Expression> indices = new ArrayList<>();
+        Expression instance = listAccessByIndex;
+        while (instance != root) {
+            indices.add(0, ((ListAccessByIndex) instance).getIndex());
+            instance = ((ListAccessByIndex) instance).getInstance();
+        }
+        ArrayList<Integer> dimensions = FlatListLayout.getDimensions(root.accept(expressionTypeChecker));
+        commands += root.accept(this);
+        commands += "checkcast FlatList\n";
+        commands += "dup\n";
+        commands += "getfield FlatList/data [I\n";
+        commands += "swap\n";
+        commands += "getfield FlatList/start I\n";
+        for (int i = 0; i < indices.size(); i++) {
+            commands += indices.get(i).accept(this);
+            commands += "ldc " + dimensions.get(i) + "\n";
+            commands += "invokestatic java/util/Objects/checkIndex(II)I\n";
+            int stride = FlatListLayout.getStride(dimensions, i);
+            if (stride != 1) {
+                commands += "ldc " + stride + "\n";
+                commands += "imul\n";
+            }
+            commands += "iadd\n";
+        }
+        return commands;
+    }
+
+    private String incDecFlatListElement(ListAccessByIndex listAccessByIndex, int delta, boolean returnsOldValue) {
+        String commands = "";
+        commands += getFlatListAddress(listAccessByIndex, getFlatListRoot(listAccessByIndex));
+        commands += "dup2\n";
+        commands += "iaload\n";
+        if (returnsOldValue)
+            commands += "dup_x2\n";
+        commands += "ldc " + delta + "\n";
+        commands += "iadd\n";
+        if (!returnsOldValue)
+            commands += "dup_x2\n";
+        commands += "iastore\n";
+        return commands;
+    }
+
     private String makeFuncArgsSignature(ArrayList<Type> argsType) {
         String signature = "";
         for (Type type : argsType) {
@@ -258,6 +579,27 @@ public class CodeGenerator extends Visitor<String> {
         return signature;
     }
 
+    private boolean isRepeatedElementList(ListType listType) {
+        ArrayList<ListNameType> elementsTypes = listType.getElementsTypes();
+        if (elementsTypes.size() < 2)
+            return false;
+        for (ListNameType listNameType : elementsTypes)
+            if (listNameType != elementsTypes.get(0))
+                return false;
+        return true;
+    }
+
+    private boolean isFlatList(Type type) {
+        return this.options.isSpecializedListsEnabled() && FlatListLayout.isFlatList(type);
+    }
+
+    private boolean isOffHeapList(ListType listType) {
+        if (!this.options.isOffHeapListsEnabled() || listType.getElementsTypes().size() < this.options.getOffHeapListThreshold())
+            return false;
+        Type elementType = listType.getElementsTypes().get(0).getType();
+        return isRepeatedElementList(listType) && (elementType instanceof IntType || elementType instanceof BoolType);
+    }
+
     private void initializeType(Type fieldType) {
         if (fieldType instanceof IntType) {
             addCommand("new java/lang/Integer");
@@ -274,6 +616,39 @@ public class CodeGenerator extends Visitor<String> {
         else if (fieldType instanceof StringType) {
             addCommand("ldc \"\"");
         }
+        else if (fieldType instanceof ListType && this.tupleClassGenerator.getTupleClassName((ListType) fieldType) != null) {
+            ListType listType = (ListType) fieldType;
+            String tupleClassName = this.tupleClassGenerator.getTupleClassName(listType);
+            addCommand("new " + tupleClassName);
+            addCommand("dup");
+            addCommand("invokespecial " + tupleClassName + "/<init>()V");
+            for (int i = 0; i < listType.getElementsTypes().size(); i++) {
+                Type elementType = listType.getElementsTypes().get(i).getType();
+                if (!(elementType instanceof StringType || elementType instanceof ListType))
+                    continue;
+                addCommand("dup");
+                initializeType(elementType);
+                addCommand("putfield " + tupleClassName + "/" + TupleClassGenerator.getFieldName(i) + " "
+                        + TupleClassGenerator.getFieldDescriptor(elementType));
+            }
+        }
+        else if (isFlatList(fieldType)) {
+            addCommand(newFlatList(FlatListLayout.getDimensions(fieldType)));
+        }
+        else if (fieldType instanceof ListType && isOffHeapList((ListType) fieldType)) {
+            ListType listType = (ListType) fieldType;
+            addCommand("new OffHeapList");
+            addCommand("dup");
+            addCommand("ldc " + listType.getElementsTypes().size());
+            addCommand("ldc " + (listType.getElementsTypes().get(0).getType() instanceof BoolType ? 1 : 0));
+            addCommand("invokespecial OffHeapList/<init>(IZ)V");
+        }
+        else if (fieldType instanceof ListType && isRepeatedElementList((ListType) fieldType)) {
+            ListType listType = (ListType) fieldType;
+            addCommand("ldc " + listType.getElementsTypes().size());
+            initializeType(listType.getElementsTypes().get(0).getType());
+            addCommand("invokestatic List/filled(ILjava/lang/Object;)LList;");
+        }
         else if (fieldType instanceof ListType) {
             ListType listType = (ListType) fieldType;
             addCommand("new List");
@@ -330,41 +705,105 @@ public class CodeGenerator extends Visitor<String> {
         addCommand(".end method");
     }
 
+    //a constructor that leaves every field unset, for the interpreter's tier to fill in an object that already
+    //exists. no sophia constructor takes a Void, so it never clashes with the program's own
+    private void addAllocationConstructor() {
+        addCommand(".method public <init>(Ljava/lang/Void;)V");
+        addCommand(".limit stack 128");
+        addCommand(".limit locals 128");
+
+        addCommand("aload_0");
+        if (this.currentClass.getParentClassName() != null) {
+            addCommand("aconst_null");
+            addCommand("invokespecial " + this.currentClass.getParentClassName().getName() + "/<init>(Ljava/lang/Void;)V");
+        }
+        else
+            addCommand("invokespecial java/lang/Object/<init>()V");
+
+        addCommand("return");
+        addCommand(".end method");
+    }
+
     private void addStaticMainMethod() {
         addCommand(".method public static main([Ljava/lang/String;)V");
         addCommand(".limit stack 128");
         addCommand(".limit locals 128");
+        String nStart = getNewLabel();
+        String nEnd = getNewLabel();
+        String nHandler = getNewLabel();
+        addCommand(".catch all from " + nStart + " to " + nEnd + " using " + nHandler);
+        addCommand(nStart + ":");
         addCommand("new Main");
         addCommand("invokespecial Main/<init>()V");
+        addCommand(nEnd + ":");
+        addCommand("invokestatic SophiaOut/flush()V");
+        addProfileDump();
         addCommand("return");
+        addCommand(nHandler + ":");
+        addCommand("invokestatic SophiaOut/flush()V");
+        addProfileDump();
+        addCommand("athrow");
         addCommand(".end method");
     }
 
+    private void addProfileDump() {
+        if (this.options.isProfilingEnabled())
+            addCommand("invokestatic Profile/dump()V");
+    }
+
     private int slotOf(String identifier) {
+        if (this.inlinedArgSlots.containsKey(identifier))
+            return this.inlinedArgSlots.get(identifier);
         if (identifier.equals("")) {
-            return this.currentSlots.size()-1 + this.tempVarNumber;
-        }
-        for (int i = 0; i < this.currentSlots.size(); i++) {
-            if (this.currentSlots.get(i).equals(identifier))
-                return i;
+            return this.firstTempSlot - 1 + this.tempVarNumber;
         }
-        return 0;
+        return this.currentSlots.getOrDefault(identifier, 0);
     }
 
     @Override
     public String visit(Program program) {
+        this.methodInliner = new MethodInliner(program, this.classHierarchy, this.options.isInliningEnabled());
         for (ClassDeclaration sophiaClass : program.getClasses()) {
+            if (this.emittedClasses != null && !this.emittedClasses.contains(sophiaClass.getClassName().getName()))
+                continue;
             createFile(sophiaClass.getClassName().getName());
             sophiaClass.accept(this);
         }
+        addTupleClasses();
+        if (this.options.isProfilingEnabled())
+            addProfileSites();
         return null;
     }
 
+    private void addProfileSites() {
+        this.currentClassName = "ProfileSites";
+        createFile(this.currentClassName);
+        addCommand(".bytecode " + CLASS_FILE_VERSION);
+        for (String command : this.profileCounters.generate())
+            addCommand(command);
+    }
+
+    private void addTupleClasses() {
+        for (String shape : this.tupleClassGenerator.getTupleClassShapes()) {
+            this.currentClassName = this.tupleClassGenerator.getTupleClassNameOfShape(shape);
+            if (this.emittedClasses != null && new File(this.outputPath + this.currentClassName + ".j").exists())
+                continue;
+            createFile(this.currentClassName);
+            addCommand(".bytecode " + CLASS_FILE_VERSION);
+            for (String command : this.tupleClassGenerator.generate(shape, this::getNewLabel))
+                addCommand(command);
+        }
+    }
+
     @Override
     public String visit(ClassDeclaration classDeclaration) {
         this.currentClass = classDeclaration;
+        this.currentClassName = classDeclaration.getClassName().getName();
         this.expressionTypeChecker.setCurrentClass(classDeclaration);
 
+        addCommand(".bytecode " + CLASS_FILE_VERSION);
+        if (this.sourceFileName != null)
+            addCommand(".source " + this.sourceFileName);
         addCommand(".class public " + classDeclaration.getClassName().getName());
         if (classDeclaration.getParentClassName() == null)
             addCommand(".super java/lang/Object");
@@ -383,6 +822,10 @@ public class CodeGenerator extends Visitor<String> {
         else
             addDefaultConstructor();
         addBlankLine();
+        if (this.options.isAllocationConstructorsEnabled()) {
+            addAllocationConstructor();
+            addBlankLine();
+        }
 
         for (MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
             methodDeclaration.accept(this);
@@ -412,12 +855,18 @@ public class CodeGenerator extends Visitor<String> {
         this.labelCounter = 0;
         this.labelsStack.clear();
         this.currentSlots.clear();
-        this.currentSlots.add("this");
+        this.currentSlots.put("this", 0);
+        this.profiledMethodName = methodDeclaration.getMethodName().getName();
 
         if(methodDeclaration instanceof ConstructorDeclaration) {
             addCommand(".method public <init>(" + makeFuncArgsSignature(getVarDecArrayTypes(methodDeclaration.getArgs())) + ")V");
             addCommand(".limit stack 128");
             addCommand(".limit locals 128");
+            this.methodEntryLabel = getNewLabel();
+            addCommand(this.methodEntryLabel + ":");
+            addLineNumber(methodDeclaration);
+            addProfileCounter("method");
+            addBudgetCheck();
 
             addCommand("aload_0");
             if (this.currentClass.getParentClassName() != null)
@@ -439,33 +888,68 @@ public class CodeGenerator extends Visitor<String> {
                     + makeTypeSignature(methodDeclaration.getReturnType()));
             addCommand(".limit stack 128");
             addCommand(".limit locals 128");
+            this.methodEntryLabel = getNewLabel();
+            addCommand(this.methodEntryLabel + ":");
+            addLineNumber(methodDeclaration);
+            addProfileCounter("method");
+            addBudgetCheck();
         }
 
         for (VarDeclaration varDeclaration: methodDeclaration.getArgs()) {
             varDeclaration.accept(this);
         }
 
-        for (VarDeclaration varDeclaration : methodDeclaration.getLocalVars()) {
-            varDeclaration.accept(this);
-            int slot = slotOf(varDeclaration.getVarName().getName());
-            initializeType(varDeclaration.getType());
-            addCommand("astore" + underlineOrSpace(slot) + slot);
-        }
+        LocalSlotAllocator localSlotAllocator = new LocalSlotAllocator(methodDeclaration, this.currentSlots.size());
+        this.currentSlots.putAll(localSlotAllocator.getSlots());
+        this.firstTempSlot = localSlotAllocator.getNumberOfSlots();
 
-        for (Statement statement : methodDeclaration.getBody()) {
+        ArrayList<String> statementLabels = new ArrayList<>();
+        String nBefore = getNewLabel();
+        addCommand(nBefore + ":");
+        for (int i = 0; i < methodDeclaration.getBody().size(); i++) {
+            statementLabels.add(nBefore);
+            for (VarDeclaration varDeclaration : localSlotAllocator.getVarsLiveFrom(i)) {
+                int slot = slotOf(varDeclaration.getVarName().getName());
+                initializeType(varDeclaration.getType());
+                addCommand("astore" + underlineOrSpace(slot) + slot);
+            }
             String nAfter = getNewLabel();
             pushLabels(nAfter, nAfter, nAfter);
-            statement.accept(this);
+            methodDeclaration.getBody().get(i).accept(this);
             popLabels();
             addCommand(nAfter + ":");
+            nBefore = nAfter;
         }
+        statementLabels.add(nBefore);
         if (!methodDeclaration.getDoesReturn()) {
             addCommand("return");
         }
+        addLocalVariableTable(methodDeclaration, localSlotAllocator, statementLabels);
         addCommand(".end method");
+        this.profiledMethodName = null;
         return null;
     }
 
+    private void addLocalVariableTable(MethodDeclaration methodDeclaration, LocalSlotAllocator localSlotAllocator,
+                                       ArrayList<String> statementLabels) {
+        String methodEndLabel = statementLabels.get(statementLabels.size() - 1);
+        addCommand(".var 0 is this L" + this.currentClass.getClassName().getName() + "; from "
+                + this.methodEntryLabel + " to " + methodEndLabel);
+        for (VarDeclaration varDeclaration : methodDeclaration.getArgs()) {
+            String name = varDeclaration.getVarName().getName();
+            addCommand(".var " + slotOf(name) + " is " + name + " " + makeTypeSignature(varDeclaration.getType())
+                    + " from " + this.methodEntryLabel + " to " + methodEndLabel);
+        }
+        for (VarDeclaration varDeclaration : methodDeclaration.getLocalVars()) {
+            if (!localSlotAllocator.isLive(varDeclaration))
+                continue;
+            String name = varDeclaration.getVarName().getName();
+            addCommand(".var " + slotOf(name) + " is " + name + " " + makeTypeSignature(varDeclaration.getType())
+                    + " from " + statementLabels.get(localSlotAllocator.getFirstStatement(varDeclaration))
+                    + " to " + statementLabels.get(localSlotAllocator.getLastStatement(varDeclaration) + 1));
+        }
+    }
+
     @Override
     public String visit(FieldDeclaration fieldDeclaration) {
         addCommand(".field public " + fieldDeclaration.getVarDeclaration().getVarName().getName() + " "
@@ -475,12 +959,13 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(VarDeclaration varDeclaration) {
-        this.currentSlots.add(varDeclaration.getVarName().getName());
+        this.currentSlots.put(varDeclaration.getVarName().getName(), this.currentSlots.size());
         return null;
     }
 
     @Override
     public String visit(AssignmentStmt assignmentStmt) {
+        addLineNumber(assignmentStmt);
         BinaryExpression assignmentExpression = new BinaryExpression(assignmentStmt.getlValue(),
                 assignmentStmt.getrValue(), BinaryOperator.assign);
         addCommand(assignmentExpression.accept(this));
@@ -504,6 +989,7 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(ConditionalStmt conditionalStmt) {
+        addLineNumber(conditionalStmt);
         String nTrue = getNewLabel();
         String nFalse = getNewLabel();
         branch(conditionalStmt.getCondition(), nTrue, nFalse);
@@ -526,6 +1012,7 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(MethodCallStmt methodCallStmt) {
+        addLineNumber(methodCallStmt);
         expressionTypeChecker.setIsInMethodCallStmt(true);
         addCommand(methodCallStmt.getMethodCall().accept(this));
         expressionTypeChecker.setIsInMethodCallStmt(false);
@@ -538,8 +1025,8 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(PrintStmt print) {
+        addLineNumber(print);
         Type argType = print.getArg().accept(expressionTypeChecker);
-        addCommand("getstatic java/lang/System/out Ljava/io/PrintStream;");
         addCommand(print.getArg().accept(this));
 
         String signature = "";
@@ -553,13 +1040,66 @@ public class CodeGenerator extends Visitor<String> {
             signature += makeTypeSignature(argType);
         }
 
-        addCommand("invokevirtual java/io/PrintStream/print(" + signature + ")V");
+        addCommand("invokestatic SophiaOut/print(" + signature + ")V");
         addCommand("goto " + getTopAfterLabel());
         return null;
     }
 
+    private boolean isSelfTailCall(Expression returnedExpr) {
+        if (!(returnedExpr instanceof MethodCall) || (this.currentMethod instanceof ConstructorDeclaration))
+            return false;
+        MethodCall methodCall = (MethodCall) returnedExpr;
+        if (!(methodCall.getInstance() instanceof ObjectOrListMemberAccess))
+            return false;
+        Expression receiver = ((ObjectOrListMemberAccess) methodCall.getInstance()).getInstance();
+        if (!(receiver instanceof ThisClass))
+            return false;
+        Type receiverType = receiver.accept(expressionTypeChecker);
+        return this.methodInliner.resolveDirectTarget(methodCall, receiverType) == this.currentMethod;
+    }
+
+    private void addSelfTailCall(MethodCall methodCall) {
+        ArrayList<Integer> argTempSlots = new ArrayList<>();
+        for (Expression arg : methodCall.getArgs()) {
+            this.tempVarNumber++;
+            int tempSlot = slotOf("");
+            argTempSlots.add(tempSlot);
+
+            Type argType = arg.accept(expressionTypeChecker);
+            if (argType instanceof IntType) {
+                addCommand("new java/lang/Integer");
+                addCommand("dup");
+                addCommand(arg.accept(this));
+                addCommand("invokespecial java/lang/Integer/<init>(I)V");
+            }
+            else if (argType instanceof BoolType) {
+                addCommand("new java/lang/Boolean");
+                addCommand("dup");
+                addCommand(arg.accept(this));
+                addCommand("invokespecial java/lang/Boolean/<init>(Z)V");
+            }
+            else {
+                addCommand(arg.accept(this));
+            }
+            addCommand("astore" + underlineOrSpace(tempSlot) + tempSlot);
+        }
+        for (int i = 0; i < argTempSlots.size(); i++) {
+            int tempSlot = argTempSlots.get(i);
+            int argSlot = slotOf(this.currentMethod.getArgs().get(i).getVarName().getName());
+            addCommand("aload" + underlineOrSpace(tempSlot) + tempSlot);
+            addCommand("astore" + underlineOrSpace(argSlot) + argSlot);
+        }
+        this.tempVarNumber -= argTempSlots.size();
+        addCommand("goto " + this.methodEntryLabel);
+    }
+
     @Override
     public String visit(ReturnStmt returnStmt) {
+        addLineNumber(returnStmt);
+        if (isSelfTailCall(returnStmt.getReturnedExpr())) {
+            addSelfTailCall((MethodCall) returnStmt.getReturnedExpr());
+            return null;
+        }
         Type returnType = returnStmt.getReturnedExpr().accept(expressionTypeChecker);
         if(returnType instanceof NullType) {
             addCommand("return");
@@ -587,18 +1127,21 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(BreakStmt breakStmt) {
+        addLineNumber(breakStmt);
         addCommand("goto " + getTopBrkLabel());
         return null;
     }
 
     @Override
     public String visit(ContinueStmt continueStmt) {
+        addLineNumber(continueStmt);
         addCommand("goto " + getTopContLabel());
         return null;
     }
 
     @Override
     public String visit(ForeachStmt foreachStmt) {
+        addLineNumber(foreachStmt);
         String nAfter = getTopAfterLabel();
 
         String nInit = getNewLabel();
@@ -625,12 +1168,15 @@ public class CodeGenerator extends Visitor<String> {
 
         /*condition check*/
         addCommand(nCond + ":");
+        addLineNumber(foreachStmt);
+        addBudgetCheck();
         addCommand("iload" + underlineOrSpace(indexTempSlot) + indexTempSlot);
         addCommand("ldc " + listSize);
         addCommand("if_icmpge " + nAfter);
 
         /*body*/
         addCommand(nBody + ":");
+        addProfileCounter("loop");
         addCommand(foreachStmt.getList().accept(this));
         addCommand("iload" + underlineOrSpace(indexTempSlot) + indexTempSlot);
         addCommand("invokevirtual List/getElement(I)Ljava/lang/Object;");
@@ -642,6 +1188,7 @@ public class CodeGenerator extends Visitor<String> {
 
         /*update*/
         addCommand(nUpdate + ":");
+        addLineNumber(foreachStmt);
         addCommand("iload" + underlineOrSpace(indexTempSlot) + indexTempSlot);
         addCommand("iconst_1");
         addCommand("iadd");
@@ -655,6 +1202,7 @@ public class CodeGenerator extends Visitor<String> {
 
     @Override
     public String visit(ForStmt forStmt) {
+        addLineNumber(forStmt);
         String nAfter = getTopAfterLabel();
 
         String nInit = getNewLabel();
@@ -670,11 +1218,14 @@ public class CodeGenerator extends Visitor<String> {
         }
 
         addCommand(nCond + ":");
+        addLineNumber(forStmt);
+        addBudgetCheck();
         if (forStmt.getCondition() != null) {
             branch(forStmt.getCondition(), nBody, nAfter);
         }
 
         addCommand(nBody + ":");
+        addProfileCounter("loop");
         if (forStmt.getBody() != null) {
             pushLabels(nUpdate, nAfter, nUpdate);
             forStmt.getBody().accept(this);
@@ -803,7 +1354,7 @@ public class CodeGenerator extends Visitor<String> {
             Type firstType = binaryExpression.getFirstOperand().accept(expressionTypeChecker);
             String secondOperandCommands = binaryExpression.getSecondOperand().accept(this);
             if(firstType instanceof ListType) {
-                secondOperandCommands = "new List\n" + "dup\n" + secondOperandCommands + "invokespecial List/<init>(LList;)V\n";
+                secondOperandCommands += "invokevirtual List/copy()LList;\n";
             }
             if(binaryExpression.getFirstOperand() instanceof Identifier) {
                 Type secondType = binaryExpression.getSecondOperand().accept(this.expressionTypeChecker);
@@ -845,10 +1396,7 @@ public class CodeGenerator extends Visitor<String> {
                     commands += "invokespecial java/lang/Integer/<init>(I)V\n";
                     commands += "astore" + underlineOrSpace(tempSlot) + tempSlot + "\n";
 
-                    commands += firstOperandListAccess.getInstance().accept(this);
-                    commands += firstOperandListAccess.getIndex().accept(this);
-                    commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                    commands += storeListElement(firstOperandListAccess, tempSlot);
 
                     commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
                     commands += "invokevirtual java/lang/Integer/intValue()I\n";
@@ -860,10 +1408,7 @@ public class CodeGenerator extends Visitor<String> {
                     commands += "invokespecial java/lang/Boolean/<init>(Z)V\n";
                     commands += "astore" + underlineOrSpace(tempSlot) + tempSlot + "\n";
 
-                    commands += firstOperandListAccess.getInstance().accept(this);
-                    commands += firstOperandListAccess.getIndex().accept(this);
-                    commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                    commands += storeListElement(firstOperandListAccess, tempSlot);
 
                     commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
                     commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
@@ -872,10 +1417,7 @@ public class CodeGenerator extends Visitor<String> {
                     commands += secondOperandCommands;
                     commands += "astore" + underlineOrSpace(tempSlot) + tempSlot + "\n";
 
-                    commands += firstOperandListAccess.getInstance().accept(this);
-                    commands += firstOperandListAccess.getIndex().accept(this);
-                    commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                    commands += storeListElement(firstOperandListAccess, tempSlot);
 
                     commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
                 }
@@ -904,9 +1446,7 @@ public class CodeGenerator extends Visitor<String> {
                         commands += "astore" + underlineOrSpace(tempSlot) + tempSlot + "\n";
 
                         commands += instance.accept(this);
-                        commands += "ldc " + index + "\n";
-                        commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
-                        commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                        commands += setListElement(instanceListType, index, tempSlot);
 
                         commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
                         commands += "invokevirtual java/lang/Integer/intValue()I\n";
@@ -919,9 +1459,7 @@ public class CodeGenerator extends Visitor<String> {
                         commands += "astore" + underlineOrSpace(tempSlot) + tempSlot + "\n";
 
                         commands += instance.accept(this);
-                        commands += "ldc " + index + "\n";
-                        commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
-                        commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                        commands += setListElement(instanceListType, index, tempSlot);
 
                         commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
                         commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
@@ -931,9 +1469,7 @@ public class CodeGenerator extends Visitor<String> {
                         commands += "astore" + underlineOrSpace(tempSlot) + tempSlot + "\n";
 
                         commands += instance.accept(this);
-                        commands += "ldc " + index + "\n";
-                        commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
-                        commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+                        commands += setListElement(instanceListType, index, tempSlot);
 
                         commands += "aload" + underlineOrSpace(tempSlot) + tempSlot + "\n";
                     }
@@ -1024,6 +1560,25 @@ public class CodeGenerator extends Visitor<String> {
                 commands += "invokevirtual java/lang/Integer/intValue()I\n";
             }
 
+            else if(unaryExpression.getOperand() instanceof ListAccessByIndex
+                    && isTupleIndex((ListType) ((ListAccessByIndex) unaryExpression.getOperand()).getInstance().accept(expressionTypeChecker),
+                    ((ListAccessByIndex) unaryExpression.getOperand()).getIndex())) {
+                ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
+                ListType instanceListType = (ListType) unaryListAccess.getInstance().accept(expressionTypeChecker);
+                int index = ((IntValue) unaryListAccess.getIndex()).getConstant();
+                if (operator == UnaryOperator.preinc)
+                    commands += incDecListElement(unaryListAccess.getInstance(), instanceListType, index, 1, false);
+                else
+                    commands += incDecListElement(unaryListAccess.getInstance(), instanceListType, index, -1, false);
+            }
+            else if(unaryExpression.getOperand() instanceof ListAccessByIndex
+                    && getFlatListRoot((ListAccessByIndex) unaryExpression.getOperand()) != null) {
+                ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
+                if (operator == UnaryOperator.preinc)
+                    commands += incDecFlatListElement(unaryListAccess, 1, false);
+                else
+                    commands += incDecFlatListElement(unaryListAccess, -1, false);
+            }
             else if(unaryExpression.getOperand() instanceof ListAccessByIndex) {
                 ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
 
@@ -1076,40 +1631,10 @@ public class CodeGenerator extends Visitor<String> {
                         if (instanceListType.getElementsTypes().get(memberIndex).getName().getName().equals(memberName))
                             break;
                     }
-
-                    ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
-
-                    this.tempVarNumber++;
-                    int tempSlotInstance = slotOf("");
-                    this.tempVarNumber++;
-                    int tempSlotResult = slotOf("");
-
-                    commands += unaryListAccess.getInstance().accept(this);
-                    commands += "astore" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
-
-                    commands += "aload" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
-                    commands += "ldc " + memberIndex + "\n";
-                    commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                    commands += "checkcast java/lang/Integer\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
                     if (operator == UnaryOperator.preinc)
-                        commands += "ldc 1\n";
+                        commands += incDecListElement(instance, instanceListType, memberIndex, 1, false);
                     else
-                        commands += "ldc -1\n";
-                    commands += "iadd\n";
-                    commands += "istore" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
-
-                    commands += "aload" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
-                    commands += "ldc " + memberIndex + "\n";
-                    commands += "new java/lang/Integer\n";
-                    commands += "dup\n";
-                    commands += "iload" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
-                    commands += "invokespecial java/lang/Integer/<init>(I)V\n";
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
-
-                    commands += "iload" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
-
-                    this.tempVarNumber -= 2;
+                        commands += incDecListElement(instance, instanceListType, memberIndex, -1, false);
                 }
                 else if(instanceType instanceof ClassType) {
                     ClassType classType = (ClassType) instanceType;
@@ -1170,6 +1695,25 @@ public class CodeGenerator extends Visitor<String> {
 
                 this.tempVarNumber--;
             }
+            else if(unaryExpression.getOperand() instanceof ListAccessByIndex
+                    && isTupleIndex((ListType) ((ListAccessByIndex) unaryExpression.getOperand()).getInstance().accept(expressionTypeChecker),
+                    ((ListAccessByIndex) unaryExpression.getOperand()).getIndex())) {
+                ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
+                ListType instanceListType = (ListType) unaryListAccess.getInstance().accept(expressionTypeChecker);
+                int index = ((IntValue) unaryListAccess.getIndex()).getConstant();
+                if (operator == UnaryOperator.postinc)
+                    commands += incDecListElement(unaryListAccess.getInstance(), instanceListType, index, 1, true);
+                else
+                    commands += incDecListElement(unaryListAccess.getInstance(), instanceListType, index, -1, true);
+            }
+            else if(unaryExpression.getOperand() instanceof ListAccessByIndex
+                    && getFlatListRoot((ListAccessByIndex) unaryExpression.getOperand()) != null) {
+                ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
+                if (operator == UnaryOperator.postinc)
+                    commands += incDecFlatListElement(unaryListAccess, 1, true);
+                else
+                    commands += incDecFlatListElement(unaryListAccess, -1, true);
+            }
             else if(unaryExpression.getOperand() instanceof ListAccessByIndex) {
                 ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
 
@@ -1221,40 +1765,10 @@ public class CodeGenerator extends Visitor<String> {
                         if (instanceListType.getElementsTypes().get(memberIndex).getName().getName().equals(memberName))
                             break;
                     }
-
-                    ListAccessByIndex unaryListAccess = (ListAccessByIndex) unaryExpression.getOperand();
-
-                    this.tempVarNumber++;
-                    int tempSlotInstance = slotOf("");
-                    this.tempVarNumber++;
-                    int tempSlotResult = slotOf("");
-
-                    commands += unaryListAccess.getInstance().accept(this);
-                    commands += "astore" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
-
-                    commands += "aload" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
-                    commands += "ldc " + memberIndex + "\n";
-                    commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-                    commands += "checkcast java/lang/Integer\n";
-                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                    commands += "istore" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
-
-                    commands += "aload" + underlineOrSpace(tempSlotInstance) + tempSlotInstance + "\n";
-                    commands += "ldc " + memberIndex + "\n";
-                    commands += "new java/lang/Integer\n";
-                    commands += "dup\n";
-                    commands += "iload" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
                     if (operator == UnaryOperator.postinc)
-                        commands += "ldc 1\n";
+                        commands += incDecListElement(instance, instanceListType, memberIndex, 1, true);
                     else
-                        commands += "ldc -1\n";
-                    commands += "iadd\n";
-                    commands += "invokespecial java/lang/Integer/<init>(I)V\n";
-                    commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
-
-                    commands += "iload" + underlineOrSpace(tempSlotResult) + tempSlotResult + "\n";
-
-                    this.tempVarNumber -= 2;
+                        commands += incDecListElement(instance, instanceListType, memberIndex, -1, true);
                 }
                 else if(instanceType instanceof ClassType) {
                     ClassType classType = (ClassType) instanceType;
@@ -1301,26 +1815,26 @@ public class CodeGenerator extends Visitor<String> {
         String commands = "";
         if(instanceType instanceof ClassType) {
             String className = ((ClassType) instanceType).getClassName().getName();
-            try {
-                SymbolTable classSymbolTable = ((ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true)).getClassSymbolTable();
-                try {
-                    classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + memberName, true);
-                    commands += objectOrListMemberAccess.getInstance().accept(this);
-                    commands += "getfield " + className + "/" + memberName + " " + makeTypeSignature(memberType) + "\n";
-                    if (memberType instanceof IntType) {
-                        commands += "invokevirtual java/lang/Integer/intValue()I\n";
-                    }
-                    else if (memberType instanceof BoolType) {
-                        commands += "invokevirtual java/lang/Boolean/booleanValue()I\n";
-                    }
-                } catch (ItemNotFoundException memberIsMethod) {
-                    commands += "new Fptr\n";
-                    commands += "dup\n";
-                    commands += objectOrListMemberAccess.getInstance().accept(this);
-                    commands += "ldc \"" + memberName + "\"\n";
-                    commands += "invokespecial Fptr/<init>(Ljava/lang/Object;Ljava/lang/String;)V\n";
+            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(((ClassType) instanceType).getClassName()), true);
+            if (classSymbolTableItem == null)
+                return commands;
+            SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
+            if (classSymbolTable.lookup(FieldSymbolTableItem.keyOf(objectOrListMemberAccess.getMemberName()), true) != null) {
+                commands += objectOrListMemberAccess.getInstance().accept(this);
+                commands += "getfield " + className + "/" + memberName + " " + makeTypeSignature(memberType) + "\n";
+                if (memberType instanceof IntType) {
+                    commands += "invokevirtual java/lang/Integer/intValue()I\n";
                 }
-            } catch (ItemNotFoundException classNotFound) {
+                else if (memberType instanceof BoolType) {
+                    commands += "invokevirtual java/lang/Boolean/booleanValue()I\n";
+                }
+            }
+            else {
+                commands += "new Fptr\n";
+                commands += "dup\n";
+                commands += objectOrListMemberAccess.getInstance().accept(this);
+                commands += "ldc \"" + memberName + "\"\n";
+                commands += "invokespecial Fptr/<init>(Ljava/lang/Object;Ljava/lang/String;)V\n";
             }
         }
         else if(instanceType instanceof ListType) {
@@ -1331,30 +1845,7 @@ public class CodeGenerator extends Visitor<String> {
                     break;
             }
             commands += objectOrListMemberAccess.getInstance().accept(this);
-            commands += "ldc " + index + "\n";
-            commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
-
-            Type elementType = listType.getElementsTypes().get(index).getType();
-            if (elementType instanceof BoolType) {
-                commands += "checkcast java/lang/Boolean\n";
-                commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-            }
-            else if (elementType instanceof ClassType) {
-                commands += "checkcast " + ((ClassType)elementType).getClassName().getName() + "\n";
-            }
-            else if (elementType instanceof IntType) {
-                commands += "checkcast java/lang/Integer\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
-            }
-            else if (elementType instanceof StringType) {
-                commands += "checkcast java/lang/String\n";
-            }
-            else if (elementType instanceof ListType) {
-                commands += "checkcast List\n";
-            }
-            else if (elementType instanceof FptrType) {
-                commands += "checkcast Fptr\n";
-            }
+            commands += getListElement(listType, index);
         }
         return commands;
     }
@@ -1365,26 +1856,30 @@ public class CodeGenerator extends Visitor<String> {
 
         int slot = slotOf(identifier.getName());
 
-        try {
-            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + this.currentClass.getClassName().getName(), true);
-            SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
-            MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + this.currentMethod.getMethodName().getName(), true);
-            SymbolTable methodSymbolTable = methodSymbolTableItem.getMethodSymbolTable();
-            LocalVariableSymbolTableItem localVariableSymbolTableItem = (LocalVariableSymbolTableItem) methodSymbolTable.getItem(LocalVariableSymbolTableItem.START_KEY + identifier.getName(), true);
-            Type varType = localVariableSymbolTableItem.getType();
-            if (varType instanceof IntType) {
-                commands += "aload" + underlineOrSpace(slot) + slot + "\n";
-                commands += "invokevirtual java/lang/Integer/intValue()I\n";
+        ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(this.currentClass.getClassName()), true);
+        if (classSymbolTableItem == null)
+            return commands;
+        SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
+        MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.lookup(MethodSymbolTableItem.keyOf(this.currentMethod.getMethodName()), true);
+        if (methodSymbolTableItem == null)
+            return commands;
+        SymbolTable methodSymbolTable = methodSymbolTableItem.getMethodSymbolTable();
+        LocalVariableSymbolTableItem localVariableSymbolTableItem = (LocalVariableSymbolTableItem) methodSymbolTable.lookup(LocalVariableSymbolTableItem.keyOf(identifier), true);
+        if (localVariableSymbolTableItem == null)
+            return commands;
+        Type varType = localVariableSymbolTableItem.getType();
+        if (varType instanceof IntType) {
+            commands += "aload" + underlineOrSpace(slot) + slot + "\n";
+            commands += "invokevirtual java/lang/Integer/intValue()I\n";
 
-            }
-            else if (varType instanceof BoolType) {
-                commands += "aload" + underlineOrSpace(slot) + slot + "\n";
-                commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-            }
-            else {
-                commands += "aload" + underlineOrSpace(slot) + slot + "\n";
-            }
-        } catch (ItemNotFoundException ignored) {}
+        }
+        else if (varType instanceof BoolType) {
+            commands += "aload" + underlineOrSpace(slot) + slot + "\n";
+            commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
+        }
+        else {
+            commands += "aload" + underlineOrSpace(slot) + slot + "\n";
+        }
 
         return commands;
     }
@@ -1392,45 +1887,44 @@ public class CodeGenerator extends Visitor<String> {
     @Override
     public String visit(ListAccessByIndex listAccessByIndex) {
         String commands = "";
+        Expression flatListRoot = getFlatListRoot(listAccessByIndex);
+        if (flatListRoot != null) {
+            commands += getFlatListAddress(listAccessByIndex, flatListRoot);
+            commands += "iaload\n";
+            return commands;
+        }
+        ListType instanceType = (ListType) listAccessByIndex.getInstance().accept(expressionTypeChecker);
         commands += listAccessByIndex.getInstance().accept(this);
+        if (isTupleIndex(instanceType, listAccessByIndex.getIndex())) {
+            commands += getListElement(instanceType, ((IntValue) listAccessByIndex.getIndex()).getConstant());
+            return commands;
+        }
         commands += listAccessByIndex.getIndex().accept(this);
         commands += "invokevirtual List/getElement(I)Ljava/lang/Object;\n";
 
-        ListType instanceType = (ListType) listAccessByIndex.getInstance().accept(expressionTypeChecker);
         Type elementType;
-        if (listAccessByIndex.getIndex() instanceof IntValue) {
+        if (listAccessByIndex.getIndex() instanceof IntValue
+                && ((IntValue) listAccessByIndex.getIndex()).getConstant() >= 0
+                && ((IntValue) listAccessByIndex.getIndex()).getConstant() < instanceType.getElementsTypes().size()) {
             elementType = instanceType.getElementsTypes().get(((IntValue)listAccessByIndex.getIndex()).getConstant()).getType();
         }
         else {
             elementType = instanceType.getElementsTypes().get(0).getType();
         }
-
-        if (elementType instanceof BoolType) {
-            commands += "checkcast java/lang/Boolean\n";
-            commands += "invokevirtual java/lang/Boolean/booleanValue()Z\n";
-        }
-        else if (elementType instanceof ClassType) {
-            commands += "checkcast " + ((ClassType)elementType).getClassName().getName() + "\n";
-        }
-        else if (elementType instanceof IntType) {
-            commands += "checkcast java/lang/Integer\n";
-            commands += "invokevirtual java/lang/Integer/intValue()I\n";
-        }
-        else if (elementType instanceof ListType) {
-            commands += "checkcast List\n";
-        }
-        else if (elementType instanceof FptrType) {
-            commands += "checkcast Fptr\n";
-        }
-        else if (elementType instanceof StringType) {
-            commands += "checkcast java/lang/String\n";
-        }
+        commands += castListElement(elementType);
 
         return commands;
     }
 
     @Override
     public String visit(MethodCall methodCall) {
+        if (methodCall.getInstance() instanceof ObjectOrListMemberAccess) {
+            Type receiverType = ((ObjectOrListMemberAccess) methodCall.getInstance()).getInstance().accept(expressionTypeChecker);
+            MethodDeclaration inlineTarget = this.methodInliner.getInlineTarget(methodCall, receiverType,
+                    this.currentClass, this.currentMethod);
+            if (inlineTarget != null)
+                return inlineMethodCall(methodCall, inlineTarget);
+        }
         String commands = "";
         commands += methodCall.getInstance().accept(this);
         commands += "new java/util/ArrayList\n";
@@ -1477,6 +1971,12 @@ public class CodeGenerator extends Visitor<String> {
         else if (instanceType.getReturnType() instanceof StringType) {
             commands += "checkcast java/lang/String\n";
         }
+        else if (instanceType.getReturnType() instanceof ListType) {
+            commands += "checkcast List\n";
+        }
+        else if (instanceType.getReturnType() instanceof FptrType) {
+            commands += "checkcast Fptr\n";
+        }
         else if (instanceType.getReturnType() instanceof NullType) {
             commands += "pop\n";
         }
@@ -1484,6 +1984,90 @@ public class CodeGenerator extends Visitor<String> {
         return commands;
     }
 
+    private String inlineMethodCall(MethodCall methodCall, MethodDeclaration target) {
+        String commands = "";
+        Expression receiver = ((ObjectOrListMemberAccess) methodCall.getInstance()).getInstance();
+
+        this.tempVarNumber++;
+        int receiverSlot = slotOf("");
+        commands += receiver.accept(this);
+        if (!(receiver instanceof ThisClass)) {
+            commands += "dup\n";
+            commands += "invokevirtual java/lang/Object/getClass()Ljava/lang/Class;\n";
+            commands += "pop\n";
+        }
+        commands += "astore" + underlineOrSpace(receiverSlot) + receiverSlot + "\n";
+
+        HashMap<String, Integer> argSlots = new HashMap<>();
+        for (int i = 0; i < methodCall.getArgs().size(); i++) {
+            Expression arg = methodCall.getArgs().get(i);
+            this.tempVarNumber++;
+            int argSlot = slotOf("");
+
+            Type argType = arg.accept(expressionTypeChecker);
+            if (argType instanceof IntType) {
+                commands += "new java/lang/Integer\n";
+                commands += "dup\n";
+                commands += arg.accept(this);
+                commands += "invokespecial java/lang/Integer/<init>(I)V\n";
+            }
+            else if (argType instanceof BoolType) {
+                commands += "new java/lang/Boolean\n";
+                commands += "dup\n";
+                commands += arg.accept(this);
+                commands += "invokespecial java/lang/Boolean/<init>(Z)V\n";
+            }
+            else {
+                commands += arg.accept(this);
+            }
+            commands += "astore" + underlineOrSpace(argSlot) + argSlot + "\n";
+            argSlots.put(target.getArgs().get(i).getVarName().getName(), argSlot);
+        }
+
+        ClassDeclaration callerClass = this.currentClass;
+        MethodDeclaration callerMethod = this.currentMethod;
+        HashMap<String, Integer> callerArgSlots = this.inlinedArgSlots;
+        int callerThisSlot = this.thisSlot;
+        this.currentClass = this.methodInliner.getDeclaringClass(target);
+        this.currentMethod = target;
+        this.inlinedArgSlots = argSlots;
+        this.thisSlot = receiverSlot;
+        this.expressionTypeChecker.setCurrentClass(this.currentClass);
+        this.expressionTypeChecker.setCurrentMethod(target);
+        this.methodInliner.pushInlinedMethod(target);
+
+        for (Statement statement : target.getBody()) {
+            if (statement instanceof AssignmentStmt) {
+                AssignmentStmt assignmentStmt = (AssignmentStmt) statement;
+                commands += new BinaryExpression(assignmentStmt.getlValue(), assignmentStmt.getrValue(),
+                        BinaryOperator.assign).accept(this);
+                commands += "pop\n";
+            }
+            else if (statement instanceof MethodCallStmt) {
+                MethodCall innerCall = ((MethodCallStmt) statement).getMethodCall();
+                expressionTypeChecker.setIsInMethodCallStmt(true);
+                commands += innerCall.accept(this);
+                expressionTypeChecker.setIsInMethodCallStmt(false);
+                FptrType fptrType = (FptrType) innerCall.getInstance().accept(this.expressionTypeChecker);
+                if (!(fptrType.getReturnType() instanceof NullType))
+                    commands += "pop\n";
+            }
+            else if (!(target.getReturnType() instanceof NullType)) {
+                commands += ((ReturnStmt) statement).getReturnedExpr().accept(this);
+            }
+        }
+
+        this.methodInliner.popInlinedMethod();
+        this.currentClass = callerClass;
+        this.currentMethod = callerMethod;
+        this.inlinedArgSlots = callerArgSlots;
+        this.thisSlot = callerThisSlot;
+        this.expressionTypeChecker.setCurrentClass(callerClass);
+        this.expressionTypeChecker.setCurrentMethod(callerMethod);
+        this.tempVarNumber -= 1 + methodCall.getArgs().size();
+        return commands;
+    }
+
     @Override
     public String visit(NewClassInstance newClassInstance) {
         String commands = "";
@@ -1508,30 +2092,58 @@ public class CodeGenerator extends Visitor<String> {
                 commands += arg.accept(this);
             }
         }
-        try {
-            ClassDeclaration classDeclaration = ((ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY
-                    + newClassInstance.getClassType().getClassName().getName(), true)).getClassDeclaration();
-            ArrayList<Type> classConstructorArgTypes = new ArrayList<>();
-            if (classDeclaration.getConstructor() != null) {
-                for (VarDeclaration argDec : classDeclaration.getConstructor().getArgs())
-                    classConstructorArgTypes.add(argDec.getType());
-            }
-            commands += "invokespecial " + newClassInstance.getClassType().getClassName().getName()
-                    + "/<init>(" + makeFuncArgsSignature(classConstructorArgTypes) + ")V\n";
-        } catch (ItemNotFoundException ignored) {}
+        ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(newClassInstance.getClassType().getClassName()), true);
+        if (classSymbolTableItem == null)
+            return commands;
+        ClassDeclaration classDeclaration = classSymbolTableItem.getClassDeclaration();
+        ArrayList<Type> classConstructorArgTypes = new ArrayList<>();
+        if (classDeclaration.getConstructor() != null) {
+            for (VarDeclaration argDec : classDeclaration.getConstructor().getArgs())
+                classConstructorArgTypes.add(argDec.getType());
+        }
+        commands += "invokespecial " + newClassInstance.getClassType().getClassName().getName()
+                + "/<init>(" + makeFuncArgsSignature(classConstructorArgTypes) + ")V\n";
         return commands;
     }
 
     @Override
     public String visit(ThisClass thisClass) {
         String commands = "";
-        commands += "aload_0" + "\n";
+        commands += "aload" + underlineOrSpace(this.thisSlot) + this.thisSlot + "\n";
         return commands;
     }
 
     @Override
     public String visit(ListValue listValue) {
         String commands = "";
+        Type listType = listValue.accept(expressionTypeChecker);
+        if (isFlatList(listType)) {
+            commands += newFlatList(FlatListLayout.getDimensions(listType));
+            for (int i = 0; i < listValue.getElements().size(); i++) {
+                commands += "dup\n";
+                commands += "ldc " + i + "\n";
+                commands += listValue.getElements().get(i).accept(this);
+                commands += "invokevirtual List/setElement(ILjava/lang/Object;)V\n";
+            }
+            return commands;
+        }
+        String tupleClassName = this.tupleClassGenerator.getTupleClassName((ListType) listType);
+        if (tupleClassName != null) {
+            commands += "new " + tupleClassName + "\n";
+            commands += "dup\n";
+            commands += "invokespecial " + tupleClassName + "/<init>()V\n";
+            for (int i = 0; i < listValue.getElements().size(); i++) {
+                Expression element = listValue.getElements().get(i);
+                Type exprType = element.accept(expressionTypeChecker);
+                commands += "dup\n";
+                commands += element.accept(this);
+                if (exprType instanceof ListType)
+                    commands += "invokevirtual List/copy()LList;\n";
+                commands += "putfield " + tupleClassName + "/" + TupleClassGenerator.getFieldName(i) + " "
+                        + TupleClassGenerator.getFieldDescriptor(exprType) + "\n";
+            }
+            return commands;
+        }
         commands += "new List\n";
         commands += "dup\n";
 
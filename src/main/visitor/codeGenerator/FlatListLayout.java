@@ -0,0 +1,47 @@
+package main.visitor.codeGenerator;
+
+import main.ast.types.Type;
+import main.ast.types.list.ListNameType;
+import main.ast.types.list.ListType;
+import main.ast.types.single.IntType;
+
+import java.util.ArrayList;
+
+//nested lists whose elements are all same-sized lists down to int elements are stored row-major
+//in a single int[] by FlatList. list subtyping keeps sizes and int elements, so every value of
+//such a type has the same layout
+public class FlatListLayout {
+    public static ArrayList<Integer> getDimensions(Type type) {
+        if (!(type instanceof ListType))
+            return null;
+        ArrayList<ListNameType> elementsTypes = ((ListType) type).getElementsTypes();
+        ArrayList<Integer> elementDimensions = null;
+        for (int i = 0; i < elementsTypes.size(); i++) {
+            if (i > 0 && elementsTypes.get(i) == elementsTypes.get(i - 1))
+                continue;
+            Type elementType = elementsTypes.get(i).getType();
+            ArrayList<Integer> dimensions = elementType instanceof IntType ? new ArrayList<>() : getDimensions(elementType);
+            if (dimensions == null || (elementDimensions != null && !dimensions.equals(elementDimensions)))
+                return null;
+            elementDimensions = dimensions;
+        }
+        if (elementDimensions == null)
+            return null;
+        ArrayList<Integer> dimensions = new ArrayList<>();
+        dimensions.add(elementsTypes.size());
+        dimensions.addAll(elementDimensions);
+        return dimensions;
+    }
+
+    public static boolean isFlatList(Type type) {
+        ArrayList<Integer> dimensions = getDimensions(type);
+        return dimensions != null && dimensions.size() >= 2;
+    }
+
+    public static int getStride(ArrayList<Integer> dimensions, int level) {
+        int stride = 1;
+        for (int i = level + 1; i < dimensions.size(); i++)
+            stride *= dimensions.get(i);
+        return stride;
+    }
+}
@@ -0,0 +1,99 @@
+package main.visitor.codeGenerator;
+
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.statement.Statement;
+import main.visitor.utils.IdentifierCollector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+//live intervals are measured in top-level statements of the method body:
+//a local is live from the first statement that mentions it to the last one
+public class LocalSlotAllocator {
+    private final MethodDeclaration methodDeclaration;
+    private final HashMap<String, Integer> slots = new HashMap<>();
+    private final HashMap<String, Integer> firstStatements = new HashMap<>();
+    private final HashMap<String, Integer> lastStatements = new HashMap<>();
+    private int numberOfSlots;
+
+    public LocalSlotAllocator(MethodDeclaration methodDeclaration, int firstFreeSlot) {
+        this.methodDeclaration = methodDeclaration;
+        this.computeLiveIntervals();
+        this.allocateSlots(firstFreeSlot);
+    }
+
+    private void computeLiveIntervals() {
+        HashMap<String, VarDeclaration> localVars = new HashMap<>();
+        for (VarDeclaration varDeclaration : this.methodDeclaration.getLocalVars())
+            localVars.put(varDeclaration.getVarName().getName(), varDeclaration);
+        IdentifierCollector identifierCollector = new IdentifierCollector();
+        ArrayList<Statement> body = this.methodDeclaration.getBody();
+        for (int i = 0; i < body.size(); i++) {
+            for (String name : identifierCollector.collect(body.get(i))) {
+                if (!localVars.containsKey(name))
+                    continue;
+                this.firstStatements.putIfAbsent(name, i);
+                this.lastStatements.put(name, i);
+            }
+        }
+    }
+
+    private void allocateSlots(int firstFreeSlot) {
+        ArrayList<VarDeclaration> liveVars = new ArrayList<>();
+        for (VarDeclaration varDeclaration : this.methodDeclaration.getLocalVars())
+            if (this.firstStatements.containsKey(varDeclaration.getVarName().getName()))
+                liveVars.add(varDeclaration);
+        liveVars.sort((first, second) -> getFirstStatement(first) - getFirstStatement(second));
+
+        ArrayList<VarDeclaration> activeVars = new ArrayList<>();
+        TreeSet<Integer> freeSlots = new TreeSet<>();
+        int nextSlot = firstFreeSlot;
+        for (VarDeclaration varDeclaration : liveVars) {
+            int start = getFirstStatement(varDeclaration);
+            for (int i = activeVars.size() - 1; i >= 0; i--) {
+                if (getLastStatement(activeVars.get(i)) < start) {
+                    freeSlots.add(this.slots.get(activeVars.get(i).getVarName().getName()));
+                    activeVars.remove(i);
+                }
+            }
+            int slot;
+            if (freeSlots.isEmpty())
+                slot = nextSlot++;
+            else
+                slot = freeSlots.pollFirst();
+            this.slots.put(varDeclaration.getVarName().getName(), slot);
+            activeVars.add(varDeclaration);
+        }
+        this.numberOfSlots = nextSlot;
+    }
+
+    public HashMap<String, Integer> getSlots() {
+        return slots;
+    }
+
+    public int getNumberOfSlots() {
+        return numberOfSlots;
+    }
+
+    public boolean isLive(VarDeclaration varDeclaration) {
+        return this.slots.containsKey(varDeclaration.getVarName().getName());
+    }
+
+    public int getFirstStatement(VarDeclaration varDeclaration) {
+        return this.firstStatements.get(varDeclaration.getVarName().getName());
+    }
+
+    public int getLastStatement(VarDeclaration varDeclaration) {
+        return this.lastStatements.get(varDeclaration.getVarName().getName());
+    }
+
+    public ArrayList<VarDeclaration> getVarsLiveFrom(int statementIndex) {
+        ArrayList<VarDeclaration> vars = new ArrayList<>();
+        for (VarDeclaration varDeclaration : this.methodDeclaration.getLocalVars())
+            if (isLive(varDeclaration) && getFirstStatement(varDeclaration) == statementIndex)
+                vars.add(varDeclaration);
+        return vars;
+    }
+}
@@ -0,0 +1,136 @@
+package main.visitor.codeGenerator;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.expression.Identifier;
+import main.ast.nodes.expression.MethodCall;
+import main.ast.nodes.expression.ObjectOrListMemberAccess;
+import main.ast.nodes.statement.AssignmentStmt;
+import main.ast.nodes.statement.MethodCallStmt;
+import main.ast.nodes.statement.ReturnStmt;
+import main.ast.nodes.statement.Statement;
+import main.ast.types.Type;
+import main.ast.types.single.ClassType;
+import main.symbolTable.SymbolTable;
+import main.symbolTable.items.ClassSymbolTableItem;
+import main.symbolTable.items.FieldSymbolTableItem;
+import main.symbolTable.items.MethodSymbolTableItem;
+import main.symbolTable.utils.graph.Graph;
+import main.visitor.utils.NodeCounter;
+
+import java.util.ArrayList;
+
+public class MethodInliner {
+    public static final int MAX_INLINED_NODES = 16;
+    public static final int MAX_INLINING_DEPTH = 3;
+
+    private final Program program;
+    private final Graph<String> classHierarchy;
+    private final boolean enabled;
+    private final NodeCounter nodeCounter = new NodeCounter();
+    private final ArrayList<MethodDeclaration> inliningStack = new ArrayList<>();
+    private final ArrayList<String> report = new ArrayList<>();
+
+    public MethodInliner(Program program, Graph<String> classHierarchy, boolean enabled) {
+        this.program = program;
+        this.classHierarchy = classHierarchy;
+        this.enabled = enabled;
+    }
+
+    public ArrayList<String> getReport() {
+        return report;
+    }
+
+    public void pushInlinedMethod(MethodDeclaration methodDeclaration) {
+        this.inliningStack.add(methodDeclaration);
+    }
+
+    public void popInlinedMethod() {
+        this.inliningStack.remove(this.inliningStack.size() - 1);
+    }
+
+    public ClassDeclaration getDeclaringClass(MethodDeclaration methodDeclaration) {
+        for (ClassDeclaration classDeclaration : this.program.getClasses())
+            if (classDeclaration.getMethods().contains(methodDeclaration))
+                return classDeclaration;
+        return null;
+    }
+
+    public boolean isOverridden(String className, String methodName) {
+        for (ClassDeclaration classDeclaration : this.program.getClasses()) {
+            String otherClassName = classDeclaration.getClassName().getName();
+            if (otherClassName.equals(className) || !this.classHierarchy.isSecondNodeAncestorOf(otherClassName, className))
+                continue;
+            for (MethodDeclaration methodDeclaration : classDeclaration.getMethods())
+                if (methodDeclaration.getMethodName().getName().equals(methodName))
+                    return true;
+        }
+        return false;
+    }
+
+    public MethodDeclaration resolveDirectTarget(MethodCall methodCall, Type receiverType) {
+        if (!(methodCall.getInstance() instanceof ObjectOrListMemberAccess) || !(receiverType instanceof ClassType))
+            return null;
+        String className = ((ClassType) receiverType).getClassName().getName();
+        Identifier memberName = ((ObjectOrListMemberAccess) methodCall.getInstance()).getMemberName();
+        String methodName = memberName.getName();
+        ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(((ClassType) receiverType).getClassName()), true);
+        if (classSymbolTableItem == null)
+            return null;
+        SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
+        if (classSymbolTable.lookup(FieldSymbolTableItem.keyOf(memberName), true) != null)
+            return null;
+        MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.lookup(MethodSymbolTableItem.keyOf(memberName), true);
+        if (methodSymbolTableItem == null)
+            return null;
+        MethodDeclaration target = methodSymbolTableItem.getMethodDeclaration();
+        if (target instanceof ConstructorDeclaration || this.isOverridden(className, methodName))
+            return null;
+        return target;
+    }
+
+    public MethodDeclaration getInlineTarget(MethodCall methodCall, Type receiverType, ClassDeclaration callerClass,
+                                             MethodDeclaration callerMethod) {
+        if (!this.enabled)
+            return null;
+        String callSite = "Line:" + methodCall.getLine() + ":" + callerClass.getClassName().getName()
+                + "." + callerMethod.getMethodName().getName() + ": ";
+        MethodDeclaration target = this.resolveDirectTarget(methodCall, receiverType);
+        if (target == null) {
+            this.report.add(callSite + "not inlined: call target is not statically unique");
+            return null;
+        }
+        String targetName = this.getDeclaringClass(target).getClassName().getName() + "." + target.getMethodName().getName();
+        String reason = this.whyNotInlinable(target, callerMethod);
+        if (reason != null) {
+            this.report.add(callSite + "not inlined " + targetName + ": " + reason);
+            return null;
+        }
+        this.report.add(callSite + "inlined " + targetName);
+        return target;
+    }
+
+    private String whyNotInlinable(MethodDeclaration target, MethodDeclaration callerMethod) {
+        if (target == callerMethod || this.inliningStack.contains(target))
+            return "recursive call";
+        if (this.inliningStack.size() >= MAX_INLINING_DEPTH)
+            return "inlining depth exceeded";
+        if (target.getLocalVars().size() != 0)
+            return "declares local variables";
+        ArrayList<Statement> body = target.getBody();
+        for (int i = 0; i < body.size(); i++) {
+            Statement statement = body.get(i);
+            if (statement instanceof ReturnStmt) {
+                if (i != body.size() - 1)
+                    return "early return";
+            }
+            else if (!(statement instanceof AssignmentStmt || statement instanceof MethodCallStmt))
+                return "body is not straight-line code";
+        }
+        if (target.accept(this.nodeCounter) - target.getArgs().size() > MAX_INLINED_NODES)
+            return "body too large";
+        return null;
+    }
+}
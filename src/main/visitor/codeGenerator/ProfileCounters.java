@@ -0,0 +1,48 @@
+package main.visitor.codeGenerator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+//each profiled kind of event is counted per (kind, class, method, line) site. the generated
+//ProfileSites class hands the site names to the Profile runtime class, which keeps one LongAdder per site
+public class ProfileCounters {
+    private final LinkedHashMap<String, Integer> siteIds = new LinkedHashMap<>();
+
+    public int getSiteId(String kind, String className, String methodName, int line) {
+        String site = kind + " " + className + " " + methodName + " " + line;
+        if (!this.siteIds.containsKey(site))
+            this.siteIds.put(site, this.siteIds.size());
+        return this.siteIds.get(site);
+    }
+
+    public static String getCountedKind(String command) {
+        if (command.equals("new java/lang/Integer") || command.equals("new java/lang/Boolean"))
+            return "box";
+        if (command.equals("invokevirtual List/copy()LList;"))
+            return "copy";
+        if (command.startsWith("invokevirtual Fptr/invoke("))
+            return "invoke";
+        return null;
+    }
+
+    public ArrayList<String> generate() {
+        ArrayList<String> commands = new ArrayList<>();
+        commands.add(".class public final ProfileSites");
+        commands.add(".super java/lang/Object");
+        commands.add("");
+        commands.add(".method public static getNames()[Ljava/lang/String;");
+        commands.add(".limit stack 4");
+        commands.add(".limit locals 0");
+        commands.add("ldc " + this.siteIds.size());
+        commands.add("anewarray java/lang/String");
+        for (String site : this.siteIds.keySet()) {
+            commands.add("dup");
+            commands.add("ldc " + this.siteIds.get(site));
+            commands.add("ldc \"" + site + "\"");
+            commands.add("aastore");
+        }
+        commands.add("areturn");
+        commands.add(".end method");
+        return commands;
+    }
+}
@@ -0,0 +1,570 @@
+package main.visitor.codeGenerator;
+
+import main.symbolTable.utils.graph.Graph;
+import main.symbolTable.utils.graph.exceptions.GraphDoesNotContainNodeException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.function.Supplier;
+
+//computes a StackMapTable for one jasmin method by abstract interpretation of its instructions.
+//verification types are kept in jasmin .stack syntax ("Integer", "Object List", ...), except
+//uninitialized objects which are "Uninitialized #<index of their new instruction>" until written out
+public class StackMapFrameComputer {
+    private static final String TOP = "Top";
+    private static final String INTEGER = "Integer";
+    private static final String NULL = "Null";
+    private static final String UNINITIALIZED_THIS = "UninitializedThis";
+    private static final String UNINITIALIZED = "Uninitialized #";
+    private static final String OBJECT = "Object ";
+    //jasmin compresses the first frame against an empty frame instead of the method's initial
+    //frame, so the first frame is padded (and max locals raised) until jasmin writes it out in full
+    private static final int FULL_FIRST_FRAME_LOCALS = 4;
+
+    private static class Frame {
+        private final ArrayList<String> locals;
+        private final ArrayList<String> stack;
+
+        private Frame(ArrayList<String> locals, ArrayList<String> stack) {
+            this.locals = locals;
+            this.stack = stack;
+        }
+
+        private Frame copy() {
+            return new Frame(new ArrayList<>(this.locals), new ArrayList<>(this.stack));
+        }
+
+        private String pop() {
+            return this.stack.remove(this.stack.size() - 1);
+        }
+
+        private void push(String type) {
+            this.stack.add(type);
+        }
+
+        private void setLocal(int slot, String type) {
+            while (this.locals.size() <= slot)
+                this.locals.add(TOP);
+            this.locals.set(slot, type);
+        }
+
+        private String getLocal(int slot) {
+            return slot < this.locals.size() ? this.locals.get(slot) : TOP;
+        }
+
+        private void replace(String oldType, String newType) {
+            this.locals.replaceAll(type -> type.equals(oldType) ? newType : type);
+            this.stack.replaceAll(type -> type.equals(oldType) ? newType : type);
+        }
+    }
+
+    private static class Handler {
+        private final String from;
+        private final String to;
+        private final String target;
+        private final String exceptionType;
+
+        private Handler(String from, String to, String target, String exceptionType) {
+            this.from = from;
+            this.to = to;
+            this.target = target;
+            this.exceptionType = exceptionType;
+        }
+    }
+
+    private final ArrayList<String> lines;
+    private final String className;
+    private final Graph<String> classHierarchy;
+    private final Supplier<String> labelSupplier;
+
+    private final ArrayList<String[]> instructions = new ArrayList<>();
+    private final ArrayList<Integer> instructionLines = new ArrayList<>();
+    private final HashMap<String, Integer> labelPositions = new HashMap<>();
+    private final HashMap<Integer, String> positionLabels = new HashMap<>();
+    private final ArrayList<Handler> handlers = new ArrayList<>();
+    private Frame[] frames;
+    private final HashSet<Integer> frameTargets = new HashSet<>();
+
+    public StackMapFrameComputer(ArrayList<String> lines, String className, Graph<String> classHierarchy,
+                                 Supplier<String> labelSupplier) {
+        this.lines = lines;
+        this.className = className;
+        this.classHierarchy = classHierarchy;
+        this.labelSupplier = labelSupplier;
+    }
+
+    public ArrayList<String> compute() {
+        this.parse();
+        this.frames = new Frame[this.instructions.size() + 1];
+        if (this.instructions.size() == 0)
+            return this.lines;
+        this.interpret(this.makeInitialFrame());
+        return this.write();
+    }
+
+    private static boolean isLabel(String line) {
+        return line.endsWith(":") && !line.contains(" ");
+    }
+
+    private void parse() {
+        for (int i = 0; i < this.lines.size(); i++) {
+            String line = this.lines.get(i).trim();
+            if (line.equals(""))
+                continue;
+            if (isLabel(line)) {
+                this.labelPositions.put(line.substring(0, line.length() - 1), this.instructions.size());
+                this.positionLabels.putIfAbsent(this.instructions.size(), line.substring(0, line.length() - 1));
+            }
+            else if (line.startsWith(".catch")) {
+                String[] parts = line.split("\\s+");
+                String exceptionType = parts[1].equals("all") ? "java/lang/Throwable" : parts[1];
+                this.handlers.add(new Handler(parts[3], parts[5], parts[7], exceptionType));
+            }
+            else if (!line.startsWith(".")) {
+                this.instructions.add(line.split("\\s+"));
+                this.instructionLines.add(i);
+            }
+        }
+    }
+
+    private Frame makeInitialFrame() {
+        String header = this.lines.get(0).trim();
+        String descriptor = header.substring(header.indexOf('('));
+        String methodName = header.substring(0, header.indexOf('('));
+        methodName = methodName.substring(methodName.lastIndexOf(' ') + 1);
+        Frame frame = new Frame(new ArrayList<>(), new ArrayList<>());
+        if (!header.contains(" static ")) {
+            if (methodName.equals("<init>"))
+                frame.locals.add(UNINITIALIZED_THIS);
+            else
+                frame.locals.add(OBJECT + this.className);
+        }
+        frame.locals.addAll(argumentTypes(descriptor));
+        return frame;
+    }
+
+    private void interpret(Frame initialFrame) {
+        LinkedList<Integer> worklist = new LinkedList<>();
+        this.merge(0, initialFrame, worklist);
+        while (!worklist.isEmpty()) {
+            int index = worklist.removeFirst();
+            if (index == this.instructions.size())
+                throw new IllegalStateException("Execution falls off the end of the method");
+            Frame frame = this.frames[index].copy();
+            for (Handler handler : this.handlers) {
+                int from = this.labelPositions.get(handler.from);
+                int to = this.labelPositions.get(handler.to);
+                if (index < from || index >= to)
+                    continue;
+                int target = this.labelPositions.get(handler.target);
+                ArrayList<String> handlerStack = new ArrayList<>();
+                handlerStack.add(OBJECT + handler.exceptionType);
+                this.frameTargets.add(target);
+                this.merge(target, new Frame(new ArrayList<>(frame.locals), handlerStack), worklist);
+            }
+            String[] instruction = this.instructions.get(index);
+            String opcode = instruction[0];
+            this.execute(index, instruction, frame);
+            if (isBranch(opcode)) {
+                int target = this.labelPositions.get(instruction[1]);
+                this.frameTargets.add(target);
+                this.merge(target, frame, worklist);
+            }
+            if (!isUnconditionalTransfer(opcode))
+                this.merge(index + 1, frame, worklist);
+        }
+    }
+
+    private void merge(int index, Frame incoming, LinkedList<Integer> worklist) {
+        Frame current = this.frames[index];
+        if (current == null) {
+            this.frames[index] = incoming.copy();
+            worklist.add(index);
+            return;
+        }
+        if (current.stack.size() != incoming.stack.size())
+            throw new IllegalStateException("Inconsistent stack height at instruction " + index);
+        boolean changed = false;
+        for (int i = 0; i < current.stack.size(); i++) {
+            String merged = this.mergeTypes(current.stack.get(i), incoming.stack.get(i));
+            if (!merged.equals(current.stack.get(i))) {
+                current.stack.set(i, merged);
+                changed = true;
+            }
+        }
+        int localsSize = Math.max(current.locals.size(), incoming.locals.size());
+        for (int i = 0; i < localsSize; i++) {
+            String merged = this.mergeTypes(current.getLocal(i), incoming.getLocal(i));
+            if (!merged.equals(current.getLocal(i))) {
+                current.setLocal(i, merged);
+                changed = true;
+            }
+        }
+        if (changed && !worklist.contains(index))
+            worklist.add(index);
+    }
+
+    private String mergeTypes(String first, String second) {
+        if (first.equals(second))
+            return first;
+        boolean firstIsReference = first.startsWith(OBJECT) || first.equals(NULL);
+        boolean secondIsReference = second.startsWith(OBJECT) || second.equals(NULL);
+        if (!firstIsReference || !secondIsReference)
+            return TOP;
+        if (first.equals(NULL))
+            return second;
+        if (second.equals(NULL))
+            return first;
+        return OBJECT + this.commonSuperClass(first.substring(OBJECT.length()), second.substring(OBJECT.length()));
+    }
+
+    private String commonSuperClass(String first, String second) {
+        String candidate = first;
+        while (this.classHierarchy.doesGraphContainNode(candidate)) {
+            if (this.classHierarchy.isSecondNodeAncestorOf(second, candidate))
+                return candidate;
+            try {
+                Collection<String> parents = this.classHierarchy.getParentsOfNode(candidate);
+                if (parents.isEmpty())
+                    break;
+                candidate = parents.iterator().next();
+            } catch (GraphDoesNotContainNodeException e) {
+                break;
+            }
+        }
+        return "java/lang/Object";
+    }
+
+    private static boolean isBranch(String opcode) {
+        return opcode.startsWith("if") || opcode.equals("goto") || opcode.equals("goto_w");
+    }
+
+    private static boolean isUnconditionalTransfer(String opcode) {
+        return opcode.equals("goto") || opcode.equals("goto_w") || opcode.equals("athrow") || opcode.endsWith("return");
+    }
+
+    private static int slotOperand(String[] instruction) {
+        String opcode = instruction[0];
+        if (opcode.contains("_"))
+            return Integer.parseInt(opcode.substring(opcode.indexOf('_') + 1));
+        return Integer.parseInt(instruction[1]);
+    }
+
+    private void execute(int index, String[] instruction, Frame frame) {
+        String opcode = instruction[0];
+        String operand = instruction.length > 1 ? instruction[1] : null;
+        if (opcode.equals("aload") || opcode.startsWith("aload_")) {
+            frame.push(frame.getLocal(slotOperand(instruction)));
+            return;
+        }
+        if (opcode.equals("iload") || opcode.startsWith("iload_")) {
+            frame.push(INTEGER);
+            return;
+        }
+        if (opcode.equals("astore") || opcode.startsWith("astore_") || opcode.equals("istore") || opcode.startsWith("istore_")) {
+            frame.setLocal(slotOperand(instruction), frame.pop());
+            return;
+        }
+        switch (opcode) {
+            case "nop":
+            case "iinc":
+            case "goto":
+            case "goto_w":
+            case "return":
+                return;
+            case "aconst_null":
+                frame.push(NULL);
+                return;
+            case "iconst_m1":
+            case "iconst_0":
+            case "iconst_1":
+            case "iconst_2":
+            case "iconst_3":
+            case "iconst_4":
+            case "iconst_5":
+            case "bipush":
+            case "sipush":
+                frame.push(INTEGER);
+                return;
+            case "ldc":
+            case "ldc_w":
+                frame.push(operand.startsWith("\"") ? OBJECT + "java/lang/String" : INTEGER);
+                return;
+            case "new":
+                frame.push(UNINITIALIZED + index);
+                return;
+            case "pop":
+                frame.pop();
+                return;
+            case "pop2":
+                frame.pop();
+                frame.pop();
+                return;
+            case "dup": {
+                String top = frame.pop();
+                frame.push(top);
+                frame.push(top);
+                return;
+            }
+            case "dup_x1": {
+                String first = frame.pop();
+                String second = frame.pop();
+                frame.push(first);
+                frame.push(second);
+                frame.push(first);
+                return;
+            }
+            case "dup_x2": {
+                String first = frame.pop();
+                String second = frame.pop();
+                String third = frame.pop();
+                frame.push(first);
+                frame.push(third);
+                frame.push(second);
+                frame.push(first);
+                return;
+            }
+            case "dup2": {
+                String first = frame.pop();
+                String second = frame.pop();
+                frame.push(second);
+                frame.push(first);
+                frame.push(second);
+                frame.push(first);
+                return;
+            }
+            case "swap": {
+                String first = frame.pop();
+                String second = frame.pop();
+                frame.push(first);
+                frame.push(second);
+                return;
+            }
+            case "iadd":
+            case "isub":
+            case "imul":
+            case "idiv":
+            case "irem":
+            case "iand":
+            case "ior":
+            case "ixor":
+            case "ishl":
+            case "ishr":
+            case "iushr":
+                frame.pop();
+                frame.pop();
+                frame.push(INTEGER);
+                return;
+            case "ineg":
+            case "i2b":
+            case "i2c":
+            case "i2s":
+            case "instanceof":
+            case "arraylength":
+                frame.pop();
+                frame.push(INTEGER);
+                return;
+            case "checkcast":
+                frame.pop();
+                frame.push(OBJECT + operand);
+                return;
+            case "anewarray":
+                frame.pop();
+                frame.push(OBJECT + "[" + (operand.startsWith("[") ? operand : "L" + operand + ";"));
+                return;
+            case "newarray":
+                frame.pop();
+                frame.push(OBJECT + "[" + primitiveArrayDescriptor(operand));
+                return;
+            case "aaload": {
+                frame.pop();
+                String array = frame.pop();
+                frame.push(array.startsWith(OBJECT + "[") ? verificationType(array.substring(OBJECT.length() + 1)) : NULL);
+                return;
+            }
+            case "iaload":
+            case "baload":
+            case "caload":
+            case "saload":
+                frame.pop();
+                frame.pop();
+                frame.push(INTEGER);
+                return;
+            case "aastore":
+            case "iastore":
+            case "bastore":
+            case "castore":
+            case "sastore":
+                frame.pop();
+                frame.pop();
+                frame.pop();
+                return;
+            case "ifeq":
+            case "ifne":
+            case "iflt":
+            case "ifge":
+            case "ifgt":
+            case "ifle":
+            case "ifnull":
+            case "ifnonnull":
+            case "areturn":
+            case "ireturn":
+            case "athrow":
+            case "monitorenter":
+            case "monitorexit":
+                frame.pop();
+                return;
+            case "if_icmpeq":
+            case "if_icmpne":
+            case "if_icmplt":
+            case "if_icmpge":
+            case "if_icmpgt":
+            case "if_icmple":
+            case "if_acmpeq":
+            case "if_acmpne":
+                frame.pop();
+                frame.pop();
+                return;
+            case "getstatic":
+                frame.push(verificationType(instruction[2]));
+                return;
+            case "putstatic":
+                frame.pop();
+                return;
+            case "getfield":
+                frame.pop();
+                frame.push(verificationType(instruction[2]));
+                return;
+            case "putfield":
+                frame.pop();
+                frame.pop();
+                return;
+            case "invokevirtual":
+            case "invokespecial":
+            case "invokestatic":
+            case "invokeinterface": {
+                String descriptor = operand.substring(operand.indexOf('('));
+                for (int i = 0; i < argumentTypes(descriptor).size(); i++)
+                    frame.pop();
+                if (!opcode.equals("invokestatic")) {
+                    String receiver = frame.pop();
+                    if (operand.contains("/<init>(")) {
+                        if (receiver.equals(UNINITIALIZED_THIS))
+                            frame.replace(receiver, OBJECT + this.className);
+                        else
+                            frame.replace(receiver, OBJECT + this.instructions.get(
+                                    Integer.parseInt(receiver.substring(UNINITIALIZED.length())))[1]);
+                    }
+                }
+                String returnType = descriptor.substring(descriptor.indexOf(')') + 1);
+                if (!returnType.equals("V"))
+                    frame.push(verificationType(returnType));
+                return;
+            }
+            default:
+                throw new IllegalStateException("Unsupported instruction " + opcode);
+        }
+    }
+
+    private static String primitiveArrayDescriptor(String typeName) {
+        switch (typeName) {
+            case "boolean": return "Z";
+            case "byte": return "B";
+            case "char": return "C";
+            case "short": return "S";
+            default: return "I";
+        }
+    }
+
+    private static String verificationType(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'L':
+                return OBJECT + descriptor.substring(1, descriptor.length() - 1);
+            case '[':
+                return OBJECT + descriptor;
+            case 'I':
+            case 'Z':
+            case 'B':
+            case 'C':
+            case 'S':
+                return INTEGER;
+            default:
+                throw new IllegalStateException("Unsupported type " + descriptor);
+        }
+    }
+
+    private static ArrayList<String> argumentTypes(String descriptor) {
+        ArrayList<String> types = new ArrayList<>();
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            int start = i;
+            while (descriptor.charAt(i) == '[')
+                i++;
+            if (descriptor.charAt(i) == 'L')
+                i = descriptor.indexOf(';', i);
+            i++;
+            types.add(verificationType(descriptor.substring(start, i)));
+        }
+        return types;
+    }
+
+    private ArrayList<String> write() {
+        HashMap<Integer, String> newLabels = new HashMap<>();
+        HashMap<Integer, ArrayList<String>> frameLines = new HashMap<>();
+        boolean isFirstFrame = true;
+        for (int index = 0; index < this.instructions.size(); index++) {
+            if (!this.frameTargets.contains(index) || this.frames[index] == null)
+                continue;
+            Frame frame = this.frames[index];
+            ArrayList<String> locals = new ArrayList<>(frame.locals);
+            while (!locals.isEmpty() && locals.get(locals.size() - 1).equals(TOP))
+                locals.remove(locals.size() - 1);
+            while (isFirstFrame && locals.size() < FULL_FIRST_FRAME_LOCALS)
+                locals.add(TOP);
+            isFirstFrame = false;
+            ArrayList<String> block = new ArrayList<>();
+            block.add(".stack");
+            block.add("offset " + this.positionLabels.get(index));
+            for (String type : locals)
+                block.add("locals " + this.writeType(type, newLabels));
+            for (String type : frame.stack)
+                block.add("stack " + this.writeType(type, newLabels));
+            block.add(".end stack");
+            frameLines.put(index, block);
+        }
+
+        ArrayList<String> result = new ArrayList<>();
+        int index = 0;
+        for (int i = 0; i < this.lines.size(); i++) {
+            String line = this.lines.get(i);
+            if (!frameLines.isEmpty() && line.trim().startsWith(".limit locals ")
+                    && Integer.parseInt(line.trim().substring(".limit locals ".length())) < FULL_FIRST_FRAME_LOCALS)
+                line = ".limit locals " + FULL_FIRST_FRAME_LOCALS;
+            if (index < this.instructions.size() && this.instructionLines.get(index) == i) {
+                if (this.frames[index] != null) {
+                    if (frameLines.containsKey(index))
+                        result.addAll(frameLines.get(index));
+                    if (newLabels.containsKey(index))
+                        result.add(newLabels.get(index) + ":");
+                    result.add(line);
+                }
+                index++;
+            }
+            else
+                result.add(line);
+        }
+        return result;
+    }
+
+    private String writeType(String type, HashMap<Integer, String> newLabels) {
+        if (!type.startsWith(UNINITIALIZED))
+            return type;
+        int newIndex = Integer.parseInt(type.substring(UNINITIALIZED.length()));
+        if (!newLabels.containsKey(newIndex))
+            newLabels.put(newIndex, this.labelSupplier.get());
+        return "Uninitialized " + newLabels.get(newIndex);
+    }
+}
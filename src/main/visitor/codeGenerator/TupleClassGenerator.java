@@ -0,0 +1,243 @@
+package main.visitor.codeGenerator;
+
+import main.ast.types.Type;
+import main.ast.types.list.ListNameType;
+import main.ast.types.list.ListType;
+import main.ast.types.single.BoolType;
+import main.ast.types.single.IntType;
+import main.ast.types.single.StringType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+//lists whose elements do not all erase to the same jvm type can only be indexed by constants,
+//so each such shape gets a final subclass of List with one field per element.
+//class, fptr and null elements erase to Object because list types are covariant in them
+public class TupleClassGenerator {
+    private final LinkedHashMap<String, String> tupleClassNames = new LinkedHashMap<>();
+    private final boolean enabled;
+
+    public TupleClassGenerator(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static String getFieldDescriptor(Type type) {
+        if (type instanceof IntType)
+            return "I";
+        else if (type instanceof BoolType)
+            return "Z";
+        else if (type instanceof StringType)
+            return "Ljava/lang/String;";
+        else if (type instanceof ListType)
+            return "LList;";
+        return "Ljava/lang/Object;";
+    }
+
+    public static String getFieldName(int index) {
+        return "e" + index;
+    }
+
+    private static String getShape(ListType listType) {
+        String shape = "";
+        for (ListNameType listNameType : listType.getElementsTypes())
+            shape += getFieldDescriptor(listNameType.getType());
+        return shape;
+    }
+
+    public static boolean isTupleShape(ListType listType) {
+        ArrayList<ListNameType> elementsTypes = listType.getElementsTypes();
+        for (ListNameType listNameType : elementsTypes)
+            if (!getFieldDescriptor(listNameType.getType()).equals(getFieldDescriptor(elementsTypes.get(0).getType())))
+                return true;
+        return false;
+    }
+
+    public String getTupleClassName(ListType listType) {
+        if (!this.enabled || !isTupleShape(listType))
+            return null;
+        String shape = getShape(listType);
+        if (!this.tupleClassNames.containsKey(shape))
+            this.tupleClassNames.put(shape, "Tuple$" + this.tupleClassNames.size());
+        return this.tupleClassNames.get(shape);
+    }
+
+    public LinkedHashMap<String, String> getTupleClassNames() {
+        return tupleClassNames;
+    }
+
+    //keeps the names an earlier build gave to its shapes, for classes that are not generated again
+    public void setTupleClassNames(Map<String, String> tupleClassNames) {
+        this.tupleClassNames.clear();
+        this.tupleClassNames.putAll(tupleClassNames);
+    }
+
+    public ArrayList<String> getTupleClassShapes() {
+        return new ArrayList<>(this.tupleClassNames.keySet());
+    }
+
+    public String getTupleClassNameOfShape(String shape) {
+        return this.tupleClassNames.get(shape);
+    }
+
+    private static ArrayList<String> splitShape(String shape) {
+        ArrayList<String> descriptors = new ArrayList<>();
+        int i = 0;
+        while (i < shape.length()) {
+            int start = i;
+            if (shape.charAt(i) == 'L')
+                i = shape.indexOf(';', i);
+            i++;
+            descriptors.add(shape.substring(start, i));
+        }
+        return descriptors;
+    }
+
+    private static ArrayList<String> boxField(String className, int index, String descriptor) {
+        ArrayList<String> commands = new ArrayList<>();
+        if (descriptor.equals("I") || descriptor.equals("Z")) {
+            String boxClass = descriptor.equals("I") ? "java/lang/Integer" : "java/lang/Boolean";
+            commands.add("new " + boxClass);
+            commands.add("dup");
+            commands.add("aload_0");
+            commands.add("getfield " + className + "/" + getFieldName(index) + " " + descriptor);
+            commands.add("invokespecial " + boxClass + "/<init>(" + descriptor + ")V");
+        }
+        else {
+            commands.add("aload_0");
+            commands.add("getfield " + className + "/" + getFieldName(index) + " " + descriptor);
+        }
+        return commands;
+    }
+
+    public static ArrayList<String> unboxToField(String descriptor) {
+        ArrayList<String> commands = new ArrayList<>();
+        if (descriptor.equals("I")) {
+            commands.add("checkcast java/lang/Integer");
+            commands.add("invokevirtual java/lang/Integer/intValue()I");
+        }
+        else if (descriptor.equals("Z")) {
+            commands.add("checkcast java/lang/Boolean");
+            commands.add("invokevirtual java/lang/Boolean/booleanValue()Z");
+        }
+        else if (descriptor.equals("Ljava/lang/String;"))
+            commands.add("checkcast java/lang/String");
+        else if (descriptor.equals("LList;"))
+            commands.add("checkcast List");
+        return commands;
+    }
+
+    public ArrayList<String> generate(String shape, Supplier<String> labelSupplier) {
+        String className = this.tupleClassNames.get(shape);
+        ArrayList<String> descriptors = splitShape(shape);
+        ArrayList<String> commands = new ArrayList<>();
+        commands.add(".class public final " + className);
+        commands.add(".super List");
+        commands.add("");
+        for (int i = 0; i < descriptors.size(); i++)
+            commands.add(".field public " + getFieldName(i) + " " + descriptors.get(i));
+        commands.add("");
+
+        commands.add(".method public <init>()V");
+        commands.add(".limit stack 1");
+        commands.add(".limit locals 1");
+        commands.add("aload_0");
+        commands.add("invokespecial List/<init>()V");
+        commands.add("return");
+        commands.add(".end method");
+        commands.add("");
+
+        //timed through List's copy helpers like every other list layout
+        commands.add(".method public copy()LList;");
+        commands.add(".limit stack 5");
+        commands.add(".limit locals 2");
+        commands.add("invokestatic List/beginCopy()LListCopyEvent;");
+        commands.add("astore_1");
+        commands.add("new " + className);
+        commands.add("dup");
+        commands.add("invokespecial " + className + "/<init>()V");
+        for (int i = 0; i < descriptors.size(); i++) {
+            commands.add("dup");
+            commands.add("aload_0");
+            commands.add("getfield " + className + "/" + getFieldName(i) + " " + descriptors.get(i));
+            if (descriptors.get(i).equals("LList;"))
+                commands.add("invokevirtual List/copy()LList;");
+            commands.add("putfield " + className + "/" + getFieldName(i) + " " + descriptors.get(i));
+        }
+        commands.add("aload_0");
+        commands.add("aload_1");
+        commands.add("ldc " + descriptors.size());
+        commands.add("invokevirtual List/endCopy(LListCopyEvent;I)V");
+        commands.add("areturn");
+        commands.add(".end method");
+        commands.add("");
+
+        if (shape.contains("LList;")) {
+            commands.add(".method public getDepth()I");
+            commands.add(".limit stack 2");
+            commands.add(".limit locals 1");
+            commands.add("iconst_0");
+            for (int i = 0; i < descriptors.size(); i++) {
+                if (!descriptors.get(i).equals("LList;"))
+                    continue;
+                commands.add("aload_0");
+                commands.add("getfield " + className + "/" + getFieldName(i) + " LList;");
+                commands.add("invokevirtual List/getDepth()I");
+                commands.add("invokestatic java/lang/Math/max(II)I");
+            }
+            commands.add("iconst_1");
+            commands.add("iadd");
+            commands.add("ireturn");
+            commands.add(".end method");
+            commands.add("");
+        }
+
+        commands.add(".method public getElement(I)Ljava/lang/Object;");
+        commands.add(".limit stack 4");
+        commands.add(".limit locals 2");
+        for (int i = 0; i < descriptors.size(); i++) {
+            String nNext = labelSupplier.get();
+            commands.add("iload_1");
+            commands.add("ldc " + i);
+            commands.add("if_icmpne " + nNext);
+            commands.addAll(boxField(className, i, descriptors.get(i)));
+            commands.add("areturn");
+            commands.add(nNext + ":");
+        }
+        commands.addAll(outOfBounds());
+        commands.add(".end method");
+        commands.add("");
+
+        commands.add(".method public setElement(ILjava/lang/Object;)V");
+        commands.add(".limit stack 3");
+        commands.add(".limit locals 3");
+        for (int i = 0; i < descriptors.size(); i++) {
+            String nNext = labelSupplier.get();
+            commands.add("iload_1");
+            commands.add("ldc " + i);
+            commands.add("if_icmpne " + nNext);
+            commands.add("aload_0");
+            commands.add("aload_2");
+            commands.addAll(unboxToField(descriptors.get(i)));
+            if (descriptors.get(i).equals("LList;"))
+                commands.add("invokevirtual List/copy()LList;");
+            commands.add("putfield " + className + "/" + getFieldName(i) + " " + descriptors.get(i));
+            commands.add("return");
+            commands.add(nNext + ":");
+        }
+        commands.addAll(outOfBounds());
+        commands.add(".end method");
+        return commands;
+    }
+
+    private static ArrayList<String> outOfBounds() {
+        ArrayList<String> commands = new ArrayList<>();
+        commands.add("new java/lang/IndexOutOfBoundsException");
+        commands.add("dup");
+        commands.add("iload_1");
+        commands.add("invokespecial java/lang/IndexOutOfBoundsException/<init>(I)V");
+        commands.add("athrow");
+        return commands;
+    }
+}
@@ -3,48 +3,80 @@ package main.visitor.nameAnalyzer;
 import main.ast.nodes.Program;
 import main.ast.nodes.declaration.classDec.ClassDeclaration;
 import main.symbolTable.SymbolTable;
-import main.symbolTable.exceptions.ItemNotFoundException;
 import main.symbolTable.items.ClassSymbolTableItem;
 import main.symbolTable.utils.graph.Graph;
 import main.symbolTable.utils.graph.exceptions.GraphDoesNotContainNodeException;
 import main.symbolTable.utils.graph.exceptions.NodeAlreadyExistsException;
+import main.visitor.Pass;
+import main.visitor.PassManager;
+
+import java.util.Collections;
+import java.util.List;
+
+//links the class symbol tables once NameCollector has filled them. the class hierarchy is empty until then
+public class NameAnalyzer implements Pass {
+    public static final String PASS_NAME = "names.link";
 
-public class NameAnalyzer {
     private Program program;
-    private Graph<String> classHierarchy;
+    private final Graph<String> classHierarchy = new Graph<>();
 
     public NameAnalyzer(Program program) {
         this.program = program;
     }
 
-    public void analyze() {
-        NameCollector nameCollector = new NameCollector();
-        this.program.accept(nameCollector);
+    public void addPasses(PassManager passManager) {
+        passManager.add(new NameCollector());
+        passManager.add(this);
+        passManager.add(new NameChecker(this.classHierarchy));
+    }
+
+    @Override
+    public String getName() {
+        return PASS_NAME;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(NameCollector.PASS_NAME);
+    }
+
+    @Override
+    public void end(Program program) {
         this.linkParentSymbolTables();
-        NameChecker nameChecker = new NameChecker(classHierarchy);
-        this.program.accept(nameChecker);
+        this.flattenClassSymbolTables();
     }
 
     private void linkParentSymbolTables() {
-        Graph<String> classHierarchy = new Graph<>();
         for (ClassDeclaration classDeclaration : this.program.getClasses()) {
             String className = classDeclaration.getClassName().getName();
             try {
-                classHierarchy.addNode(className);
+                this.classHierarchy.addNode(className);
             } catch (NodeAlreadyExistsException ignored) { }
             if (classDeclaration.getParentClassName() == null)
                 continue;
             String parentName = classDeclaration.getParentClassName().getName();
             try {
-                classHierarchy.addNodeAsParentOf(className, parentName);
-                ClassSymbolTableItem parentSTI = (ClassSymbolTableItem) SymbolTable.root
-                        .getItem(ClassSymbolTableItem.START_KEY + parentName, true);
-                ClassSymbolTableItem thisClassSTI = (ClassSymbolTableItem) SymbolTable.root
-                        .getItem(ClassSymbolTableItem.START_KEY + className, true);
+                this.classHierarchy.addNodeAsParentOf(className, parentName);
+            } catch (GraphDoesNotContainNodeException ignored) {
+                continue;
+            }
+            ClassSymbolTableItem parentSTI = (ClassSymbolTableItem) SymbolTable.root
+                    .lookup(ClassSymbolTableItem.keyOf(classDeclaration.getParentClassName()), true);
+            ClassSymbolTableItem thisClassSTI = (ClassSymbolTableItem) SymbolTable.root
+                    .lookup(ClassSymbolTableItem.keyOf(classDeclaration.getClassName()), true);
+            if (parentSTI != null && thisClassSTI != null)
                 thisClassSTI.getClassSymbolTable().pre = parentSTI.getClassSymbolTable();
-            } catch (ItemNotFoundException | GraphDoesNotContainNodeException ignored) { }
         }
-        this.classHierarchy = classHierarchy;
+    }
+
+    //no table changes after linking, so a member of a class (inherited or not) is found with one lookup from here on
+    private void flattenClassSymbolTables() {
+        for (ClassDeclaration classDeclaration : this.program.getClasses()) {
+            ClassSymbolTableItem classSTI = (ClassSymbolTableItem) SymbolTable.root
+                    .lookup(ClassSymbolTableItem.keyOf(classDeclaration.getClassName()), true);
+            if (classSTI != null)
+                classSTI.getClassSymbolTable().freeze();
+        }
     }
 
     public Graph<String> getClassHierarchy() {
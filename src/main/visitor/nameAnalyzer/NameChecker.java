@@ -10,14 +10,19 @@ import main.compileErrorException.nameErrors.FieldRedefinition;
 import main.compileErrorException.nameErrors.MethodNameConflictWithField;
 import main.compileErrorException.nameErrors.MethodRedefinition;
 import main.symbolTable.SymbolTable;
-import main.symbolTable.exceptions.ItemNotFoundException;
 import main.symbolTable.items.ClassSymbolTableItem;
 import main.symbolTable.items.FieldSymbolTableItem;
 import main.symbolTable.items.MethodSymbolTableItem;
 import main.symbolTable.utils.graph.Graph;
+import main.visitor.Pass;
 import main.visitor.Visitor;
 
-public class NameChecker extends Visitor<Void> {
+import java.util.Collections;
+import java.util.List;
+
+public class NameChecker extends Visitor<Void> implements Pass {
+    public static final String PASS_NAME = "names.check";
+
     private String currentClassName;
     private Graph<String> classHierarchy;
     Program root;
@@ -27,21 +32,39 @@ public class NameChecker extends Visitor<Void> {
     }
 
     private SymbolTable getCurrentClassSymbolTable() {
-        try {
-            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem)
-                    SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + this.currentClassName, true);
-            return classSymbolTableItem.getClassSymbolTable();
-        } catch (ItemNotFoundException ignored) {
+        ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem)
+                SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(this.currentClassName), true);
+        if(classSymbolTableItem == null)
             return null;
-        }
+        return classSymbolTableItem.getClassSymbolTable();
     }
 
     @Override
-    public Void visit(Program program) {
+    public String getName() {
+        return PASS_NAME;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(NameAnalyzer.PASS_NAME);
+    }
+
+    @Override
+    public void begin(Program program) {
         this.root = program;
+    }
+
+    @Override
+    public void visitClass(ClassDeclaration classDeclaration) {
+        this.currentClassName = classDeclaration.getClassName().getName();
+        classDeclaration.accept(this);
+    }
+
+    @Override
+    public Void visit(Program program) {
+        this.begin(program);
         for(ClassDeclaration classDeclaration : program.getClasses()) {
-            this.currentClassName = classDeclaration.getClassName().getName();
-            classDeclaration.accept(this);
+            this.visitClass(classDeclaration);
         }
         return null;
     }
@@ -74,36 +97,31 @@ public class NameChecker extends Visitor<Void> {
 
     @Override
     public Void visit(MethodDeclaration methodDeclaration) {
+        SymbolTable classSymbolTable = this.getCurrentClassSymbolTable();
         if(!methodDeclaration.hasError()) {
-            try {
-                SymbolTable classSymbolTable = this.getCurrentClassSymbolTable();
-                classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + methodDeclaration.getMethodName().getName(), false);
+            if(classSymbolTable.lookup(MethodSymbolTableItem.keyOf(methodDeclaration.getMethodName()), false) != null) {
                 MethodRedefinition exception = new MethodRedefinition(methodDeclaration);
                 methodDeclaration.addError(exception);
-            } catch (ItemNotFoundException ignored) {
             }
         }
         boolean errored = false;
-        try {
-            SymbolTable classSymbolTable = this.getCurrentClassSymbolTable();
-            classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + methodDeclaration.getMethodName().getName(), true);
+        if(classSymbolTable.lookup(FieldSymbolTableItem.keyOf(methodDeclaration.getMethodName()), true) != null) {
             MethodNameConflictWithField exception = new MethodNameConflictWithField(methodDeclaration);
             methodDeclaration.addError(exception);
             errored = true;
-        } catch (ItemNotFoundException ignored) {
         }
         if(!errored)
             for(ClassDeclaration classDeclaration : root.getClasses()) {
                 String childName = classDeclaration.getClassName().getName();
                 if(classHierarchy.isSecondNodeAncestorOf(childName, currentClassName)) {
-                    try {
-                        ClassSymbolTableItem childSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + childName, true);
-                        SymbolTable childSymbolTable = childSymbolTableItem.getClassSymbolTable();
-                        childSymbolTable.getItem(FieldSymbolTableItem.START_KEY + methodDeclaration.getMethodName().getName(), true);
+                    ClassSymbolTableItem childSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(classDeclaration.getClassName()), true);
+                    if(childSymbolTableItem == null)
+                        continue;
+                    SymbolTable childSymbolTable = childSymbolTableItem.getClassSymbolTable();
+                    if(childSymbolTable.lookup(FieldSymbolTableItem.keyOf(methodDeclaration.getMethodName()), true) != null) {
                         MethodNameConflictWithField exception = new MethodNameConflictWithField(methodDeclaration);
                         methodDeclaration.addError(exception);
                         break;
-                    } catch (ItemNotFoundException ignored) {
                     }
                 }
             }
@@ -113,12 +131,10 @@ public class NameChecker extends Visitor<Void> {
     @Override
     public Void visit(FieldDeclaration fieldDeclaration) {
         if(!fieldDeclaration.hasError()) {
-            try {
-                SymbolTable classSymbolTable = this.getCurrentClassSymbolTable();
-                classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + fieldDeclaration.getVarDeclaration().getVarName().getName(), false);
+            SymbolTable classSymbolTable = this.getCurrentClassSymbolTable();
+            if(classSymbolTable.lookup(FieldSymbolTableItem.keyOf(fieldDeclaration.getVarDeclaration().getVarName()), false) != null) {
                 FieldRedefinition exception = new FieldRedefinition(fieldDeclaration);
                 fieldDeclaration.addError(exception);
-            } catch (ItemNotFoundException ignored) {
             }
         }
         return null;
@@ -16,14 +16,31 @@ import main.symbolTable.items.ClassSymbolTableItem;
 import main.symbolTable.items.FieldSymbolTableItem;
 import main.symbolTable.items.LocalVariableSymbolTableItem;
 import main.symbolTable.items.MethodSymbolTableItem;
+import main.visitor.Pass;
 import main.visitor.Visitor;
 
-public class NameCollector extends Visitor<Void> {
+public class NameCollector extends Visitor<Void> implements Pass {
+    public static final String PASS_NAME = "names.collect";
 
     @Override
-    public Void visit(Program program) {
+    public String getName() {
+        return PASS_NAME;
+    }
+
+    @Override
+    public void begin(Program program) {
         SymbolTable.push(new SymbolTable());
         SymbolTable.root = SymbolTable.top;
+    }
+
+    @Override
+    public void visitClass(ClassDeclaration classDeclaration) {
+        classDeclaration.accept(this);
+    }
+
+    @Override
+    public Void visit(Program program) {
+        this.begin(program);
         for(ClassDeclaration classDeclaration : program.getClasses()) {
             classDeclaration.accept(this);
         }
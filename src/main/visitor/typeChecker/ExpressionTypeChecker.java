@@ -39,6 +39,7 @@ public class ExpressionTypeChecker extends Visitor<Type> {
     private MethodDeclaration currentMethod;
     private int typeValidationNumberOfErrors;
     private boolean seenNoneLvalue = false;
+    private boolean lastIsLvalue;
     private boolean isInMethodCallStmt = false;
 
     public ExpressionTypeChecker(Graph<String> classHierarchy) {
@@ -177,23 +178,26 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         return (t1 instanceof NoType) || (t2 instanceof NoType) || (isFirstSubTypeOfSecond(t1, t2) && isFirstSubTypeOfSecond(t2, t1));
     }
 
-    public boolean isLvalue(Expression expression) {
-        boolean prevIsCatchErrorsActive = Node.isCatchErrorsActive;
+    //types an expression and finds out whether it is an lvalue (read with isLastLvalue) in the same walk
+    public Type visitLvalueCandidate(Expression expression) {
         boolean prevSeenNoneLvalue = this.seenNoneLvalue;
-        Node.isCatchErrorsActive = false;
         this.seenNoneLvalue = false;
-        expression.accept(this);
-        boolean isLvalue = !this.seenNoneLvalue;
-        this.seenNoneLvalue = prevSeenNoneLvalue;
-        Node.isCatchErrorsActive = prevIsCatchErrorsActive;
-        return isLvalue;
+        Type type = expression.accept(this);
+        this.lastIsLvalue = !this.seenNoneLvalue;
+        this.seenNoneLvalue = prevSeenNoneLvalue || this.seenNoneLvalue;
+        return type;
+    }
+
+    public boolean isLastLvalue() {
+        return this.lastIsLvalue;
     }
 
     @Override
     public Type visit(BinaryExpression binaryExpression) {
         this.seenNoneLvalue = true;
         BinaryOperator operator = binaryExpression.getBinaryOperator();
-        Type firstType = binaryExpression.getFirstOperand().accept(this);
+        Type firstType = this.visitLvalueCandidate(binaryExpression.getFirstOperand());
+        boolean isFirstLvalue = this.lastIsLvalue;
         Type secondType = binaryExpression.getSecondOperand().accept(this);
         if((operator == BinaryOperator.eq) || (operator == BinaryOperator.neq)) {
             if(firstType instanceof NoType && secondType instanceof NoType)
@@ -268,7 +272,6 @@ public class ExpressionTypeChecker extends Visitor<Type> {
                 return new BoolType();
         }
         if(operator == BinaryOperator.assign) {
-            boolean isFirstLvalue = this.isLvalue(binaryExpression.getFirstOperand());
             if(!isFirstLvalue) {
                 LeftSideNotLvalue exception = new LeftSideNotLvalue(binaryExpression.getLine());
                 binaryExpression.addError(exception);
@@ -294,7 +297,8 @@ public class ExpressionTypeChecker extends Visitor<Type> {
     @Override
     public Type visit(UnaryExpression unaryExpression) {
         this.seenNoneLvalue = true;
-        Type operandType = unaryExpression.getOperand().accept(this);
+        Type operandType = this.visitLvalueCandidate(unaryExpression.getOperand());
+        boolean isOperandLvalue = this.lastIsLvalue;
         UnaryOperator operator = unaryExpression.getOperator();
         if(operator == UnaryOperator.not) {
             if(operandType instanceof NoType)
@@ -315,7 +319,6 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             return new NoType();
         }
         else {
-            boolean isOperandLvalue = this.isLvalue(unaryExpression.getOperand());
             if(!isOperandLvalue) {
                 IncDecOperandNotLvalue exception = new IncDecOperandNotLvalue(unaryExpression.getLine(), operator.name());
                 unaryExpression.addError(exception);
@@ -344,30 +347,25 @@ public class ExpressionTypeChecker extends Visitor<Type> {
             return new NoType();
         else if(instanceType instanceof ClassType) {
             String className = ((ClassType) instanceType).getClassName().getName();
-            SymbolTable classSymbolTable;
-            try {
-                classSymbolTable = ((ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true)).getClassSymbolTable();
-            } catch (ItemNotFoundException classNotFound) {
+            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(((ClassType) instanceType).getClassName()), true);
+            if(classSymbolTableItem == null)
                 return new NoType();
-            }
-            try {
-                FieldSymbolTableItem fieldSymbolTableItem = (FieldSymbolTableItem) classSymbolTable.getItem(FieldSymbolTableItem.START_KEY + memberName, true);
+            SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
+            FieldSymbolTableItem fieldSymbolTableItem = (FieldSymbolTableItem) classSymbolTable.lookup(FieldSymbolTableItem.keyOf(objectOrListMemberAccess.getMemberName()), true);
+            if(fieldSymbolTableItem != null)
                 return this.refineType(fieldSymbolTableItem.getType());
-            } catch (ItemNotFoundException memberNotField) {
-                try {
-                    MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + memberName, true);
-                    this.seenNoneLvalue = true;
-                    return new FptrType(methodSymbolTableItem.getArgTypes(), methodSymbolTableItem.getReturnType());
-                } catch (ItemNotFoundException memberNotFound) {
-                    if(memberName.equals(className)) {
-                        this.seenNoneLvalue = true;
-                        return new FptrType(new ArrayList<>(), new NullType());
-                    }
-                    MemberNotAvailableInClass exception = new MemberNotAvailableInClass(objectOrListMemberAccess.getLine(), memberName, className);
-                    objectOrListMemberAccess.addError(exception);
-                    return new NoType();
-                }
+            MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.lookup(MethodSymbolTableItem.keyOf(objectOrListMemberAccess.getMemberName()), true);
+            if(methodSymbolTableItem != null) {
+                this.seenNoneLvalue = true;
+                return new FptrType(methodSymbolTableItem.getArgTypes(), methodSymbolTableItem.getReturnType());
             }
+            if(memberName.equals(className)) {
+                this.seenNoneLvalue = true;
+                return new FptrType(new ArrayList<>(), new NullType());
+            }
+            MemberNotAvailableInClass exception = new MemberNotAvailableInClass(objectOrListMemberAccess.getLine(), memberName, className);
+            objectOrListMemberAccess.addError(exception);
+            return new NoType();
         }
         else if(instanceType instanceof ListType) {
             ArrayList<ListNameType> elementsTypes = ((ListType) instanceType).getElementsTypes();
@@ -389,11 +387,11 @@ public class ExpressionTypeChecker extends Visitor<Type> {
     @Override
     public Type visit(Identifier identifier) {
         try {
-            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + this.currentClass.getClassName().getName(), true);
+            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.keyOf(this.currentClass.getClassName()), true);
             SymbolTable classSymbolTable = classSymbolTableItem.getClassSymbolTable();
-            MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.START_KEY + this.currentMethod.getMethodName().getName(), true);
+            MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTable.getItem(MethodSymbolTableItem.keyOf(this.currentMethod.getMethodName()), true);
             SymbolTable methodSymbolTable = methodSymbolTableItem.getMethodSymbolTable();
-            LocalVariableSymbolTableItem localVariableSymbolTableItem = (LocalVariableSymbolTableItem) methodSymbolTable.getItem(LocalVariableSymbolTableItem.START_KEY + identifier.getName(), true);
+            LocalVariableSymbolTableItem localVariableSymbolTableItem = (LocalVariableSymbolTableItem) methodSymbolTable.getItem(LocalVariableSymbolTableItem.keyOf(identifier), true);
             return this.refineType(localVariableSymbolTableItem.getType());
         } catch (ItemNotFoundException e) {
             VarNotDeclared exception = new VarNotDeclared(identifier.getLine(), identifier.getName());
@@ -490,9 +488,10 @@ public class ExpressionTypeChecker extends Visitor<Type> {
         for(Expression expression : newClassInstance.getArgs())
             newInstanceTypes.add(expression.accept(this));
         if(this.classHierarchy.doesGraphContainNode(className)) {
-            try {
-                ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.getItem(ClassSymbolTableItem.START_KEY + className, true);
-                MethodSymbolTableItem methodSymbolTableItem = (MethodSymbolTableItem) classSymbolTableItem.getClassSymbolTable().getItem(MethodSymbolTableItem.START_KEY + className, true);
+            ClassSymbolTableItem classSymbolTableItem = (ClassSymbolTableItem) SymbolTable.root.lookup(ClassSymbolTableItem.keyOf(newClassInstance.getClassType().getClassName()), true);
+            MethodSymbolTableItem methodSymbolTableItem = classSymbolTableItem == null ? null
+                    : (MethodSymbolTableItem) classSymbolTableItem.getClassSymbolTable().lookup(MethodSymbolTableItem.keyOf(newClassInstance.getClassType().getClassName()), true);
+            if(methodSymbolTableItem != null) {
                 ArrayList<Type> constructorActualTypes = methodSymbolTableItem.getArgTypes();
                 if(this.isFirstSubTypeOfSecondMultiple(newInstanceTypes, constructorActualTypes)) {
                     return newClassInstance.getClassType();
@@ -502,15 +501,14 @@ public class ExpressionTypeChecker extends Visitor<Type> {
                     newClassInstance.addError(exception);
                     return new NoType();
                 }
-            } catch (ItemNotFoundException ignored) {
-                if(newInstanceTypes.size() != 0) {
-                    ConstructorArgsNotMatchDefinition exception = new ConstructorArgsNotMatchDefinition(newClassInstance);
-                    newClassInstance.addError(exception);
-                    return new NoType();
-                }
-                else {
-                    return newClassInstance.getClassType();
-                }
+            }
+            else if(newInstanceTypes.size() != 0) {
+                ConstructorArgsNotMatchDefinition exception = new ConstructorArgsNotMatchDefinition(newClassInstance);
+                newClassInstance.addError(exception);
+                return new NoType();
+            }
+            else {
+                return newClassInstance.getClassType();
             }
         }
         else {
@@ -25,36 +25,82 @@ import main.ast.types.single.IntType;
 import main.ast.types.single.StringType;
 import main.compileErrorException.typeErrors.*;
 import main.symbolTable.utils.graph.Graph;
+import main.visitor.Pass;
 import main.visitor.Visitor;
+import main.visitor.nameAnalyzer.NameAnalyzer;
+import main.visitor.nameAnalyzer.NameChecker;
+import main.visitor.nameAnalyzer.NameCollector;
 
-import java.util.ArrayList;
+import java.util.*;
+
+public class TypeChecker extends Visitor<RetConBrk> implements Pass {
+    public static final String PASS_NAME = "types.check";
 
-public class TypeChecker extends Visitor<RetConBrk> {
     private final Graph<String> classHierarchy;
     private final ExpressionTypeChecker expressionTypeChecker;
     private ClassDeclaration currentClass;
     private MethodDeclaration currentMethod;
     private boolean isInFor = false;
+    private Set<String> checkedClasses;
+    private boolean mainCheck;
 
     public TypeChecker(Graph<String> classHierarchy) {
         this.classHierarchy = classHierarchy;
         this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
     }
 
+    //null checks every class
+    public void setCheckedClasses(Set<String> checkedClasses) {
+        this.checkedClasses = checkedClasses;
+    }
+
     @Override
-    public RetConBrk visit(Program program) {
-        boolean mainCheck = false;
-        for(ClassDeclaration classDeclaration : program.getClasses()) {
-            this.expressionTypeChecker.setCurrentClass(classDeclaration);
-            this.currentClass = classDeclaration;
-            classDeclaration.accept(this);
-            if(classDeclaration.getClassName().getName().equals("Main"))
-                mainCheck = true;
-        }
-        if(!mainCheck) {
+    public String getName() {
+        return PASS_NAME;
+    }
+
+    @Override
+    public List<String> getDependencies() {
+        return Collections.singletonList(NameAnalyzer.PASS_NAME);
+    }
+
+    //types are only reported for programs without name errors
+    @Override
+    public List<String> getGuards() {
+        return Arrays.asList(NameCollector.PASS_NAME, NameChecker.PASS_NAME);
+    }
+
+    @Override
+    public void begin(Program program) {
+        this.mainCheck = false;
+    }
+
+    @Override
+    public void visitClass(ClassDeclaration classDeclaration) {
+        if(classDeclaration.getClassName().getName().equals("Main"))
+            this.mainCheck = true;
+        if(this.checkedClasses != null && !this.checkedClasses.contains(classDeclaration.getClassName().getName()))
+            return;
+        this.expressionTypeChecker.setCurrentClass(classDeclaration);
+        this.currentClass = classDeclaration;
+        classDeclaration.accept(this);
+    }
+
+    @Override
+    public void end(Program program) {
+        if(!this.mainCheck) {
             NoMainClass exception = new NoMainClass();
             program.addError(exception);
         }
+    }
+
+    @Override
+    public RetConBrk visit(Program program) {
+        this.begin(program);
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            this.visitClass(classDeclaration);
+        }
+        this.end(program);
         return null;
     }
 
@@ -146,9 +192,9 @@ public class TypeChecker extends Visitor<RetConBrk> {
 
     @Override
     public RetConBrk visit(AssignmentStmt assignmentStmt) {
-        Type firstType = assignmentStmt.getlValue().accept(expressionTypeChecker);
+        Type firstType = expressionTypeChecker.visitLvalueCandidate(assignmentStmt.getlValue());
+        boolean isFirstLvalue = expressionTypeChecker.isLastLvalue();
         Type secondType = assignmentStmt.getrValue().accept(expressionTypeChecker);
-        boolean isFirstLvalue = expressionTypeChecker.isLvalue(assignmentStmt.getlValue());
         if(!isFirstLvalue) {
             LeftSideNotLvalue exception = new LeftSideNotLvalue(assignmentStmt.getLine());
             assignmentStmt.addError(exception);
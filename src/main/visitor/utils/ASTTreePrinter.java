@@ -22,7 +22,7 @@ import main.visitor.Visitor;
 
 public class ASTTreePrinter extends Visitor<Void> {
 
-    private void print(Node node) {
+    protected void print(Node node) {
         System.out.println("Line:" + node.getLine() + ":" + node.toString());
     }
 
@@ -0,0 +1,164 @@
+package main.visitor.utils;
+
+import main.ast.nodes.Node;
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.NewClassInstance;
+import main.ast.nodes.expression.ObjectOrListMemberAccess;
+import main.ast.types.Type;
+import main.ast.types.functionPointer.FptrType;
+import main.ast.types.list.ListNameType;
+import main.ast.types.list.ListType;
+import main.ast.types.single.ClassType;
+import main.symbolTable.utils.graph.Graph;
+import main.visitor.typeChecker.ExpressionTypeChecker;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.TreeSet;
+
+//walks a class like ASTTreePrinter but into a buffer, so the printed tree (with declared types added) can be
+//hashed. lines are printed relative to the class's first line, so code moving up or down the file leaves the
+//hash alone. when resolving, the classes of member access receivers and their subclasses are collected as well,
+//since inlining and field descriptors depend on them
+public class ClassDependencyCollector extends ASTTreePrinter {
+    private final Program program;
+    private final Graph<String> classHierarchy;
+    private final ExpressionTypeChecker expressionTypeChecker;
+    private StringBuilder text;
+    private int baseLine;
+    private TreeSet<String> dependencies;
+    private boolean resolving;
+
+    public ClassDependencyCollector(Program program, Graph<String> classHierarchy) {
+        this.program = program;
+        this.classHierarchy = classHierarchy;
+        this.expressionTypeChecker = new ExpressionTypeChecker(classHierarchy);
+    }
+
+    public String getFingerprint(ClassDeclaration classDeclaration) {
+        walk(classDeclaration, false);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(this.text.toString().getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //only valid once the program has type checked without errors
+    public TreeSet<String> getDependencies(ClassDeclaration classDeclaration) {
+        walk(classDeclaration, true);
+        this.dependencies.remove(classDeclaration.getClassName().getName());
+        return this.dependencies;
+    }
+
+    private void walk(ClassDeclaration classDeclaration, boolean resolving) {
+        this.text = new StringBuilder();
+        this.dependencies = new TreeSet<>();
+        this.resolving = resolving;
+        this.baseLine = classDeclaration.getLine();
+        this.expressionTypeChecker.setCurrentClass(classDeclaration);
+        boolean prevIsCatchErrorsActive = Node.isCatchErrorsActive;
+        Node.isCatchErrorsActive = false;
+        try {
+            classDeclaration.accept(this);
+        } finally {
+            Node.isCatchErrorsActive = prevIsCatchErrorsActive;
+        }
+    }
+
+    @Override
+    protected void print(Node node) {
+        this.text.append(node.getLine() - this.baseLine).append(':').append(node.toString()).append('\n');
+    }
+
+    private void addDependency(String className) {
+        this.dependencies.add(className);
+        if (!this.resolving)
+            return;
+        for (ClassDeclaration classDeclaration : this.program.getClasses()) {
+            String otherClassName = classDeclaration.getClassName().getName();
+            if (this.classHierarchy.isSecondNodeAncestorOf(otherClassName, className))
+                this.dependencies.add(otherClassName);
+        }
+    }
+
+    private void printType(Type type) {
+        if (type instanceof ClassType) {
+            String className = ((ClassType) type).getClassName().getName();
+            addDependency(className);
+            this.text.append(type.toString());
+        }
+        else if (type instanceof ListType) {
+            this.text.append("ListType(");
+            for (ListNameType elementType : ((ListType) type).getElementsTypes()) {
+                this.text.append(elementType.getName().getName()).append(':');
+                printType(elementType.getType());
+                this.text.append(',');
+            }
+            this.text.append(')');
+        }
+        else if (type instanceof FptrType) {
+            this.text.append("FptrType(");
+            for (Type argumentType : ((FptrType) type).getArgumentsTypes()) {
+                printType(argumentType);
+                this.text.append(',');
+            }
+            this.text.append("->");
+            printType(((FptrType) type).getReturnType());
+            this.text.append(')');
+        }
+        else if (type != null)
+            this.text.append(type.toString());
+    }
+
+    @Override
+    public Void visit(ClassDeclaration classDeclaration) {
+        if (classDeclaration.getParentClassName() != null)
+            addDependency(classDeclaration.getParentClassName().getName());
+        return super.visit(classDeclaration);
+    }
+
+    @Override
+    public Void visit(ConstructorDeclaration constructorDeclaration) {
+        this.expressionTypeChecker.setCurrentMethod(constructorDeclaration);
+        return super.visit(constructorDeclaration);
+    }
+
+    @Override
+    public Void visit(MethodDeclaration methodDeclaration) {
+        this.expressionTypeChecker.setCurrentMethod(methodDeclaration);
+        printType(methodDeclaration.getReturnType());
+        this.text.append('\n');
+        return super.visit(methodDeclaration);
+    }
+
+    @Override
+    public Void visit(VarDeclaration varDeclaration) {
+        printType(varDeclaration.getType());
+        this.text.append('\n');
+        return super.visit(varDeclaration);
+    }
+
+    @Override
+    public Void visit(NewClassInstance newClassInstance) {
+        addDependency(newClassInstance.getClassType().getClassName().getName());
+        return super.visit(newClassInstance);
+    }
+
+    @Override
+    public Void visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        if (this.resolving) {
+            Type instanceType = objectOrListMemberAccess.getInstance().accept(this.expressionTypeChecker);
+            if (instanceType instanceof ClassType)
+                addDependency(((ClassType) instanceType).getClassName().getName());
+        }
+        return super.visit(objectOrListMemberAccess);
+    }
+}
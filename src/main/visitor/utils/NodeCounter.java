@@ -0,0 +1,227 @@
+package main.visitor.utils;
+
+import main.ast.nodes.Program;
+import main.ast.nodes.declaration.classDec.ClassDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.ConstructorDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.FieldDeclaration;
+import main.ast.nodes.declaration.classDec.classMembersDec.MethodDeclaration;
+import main.ast.nodes.declaration.variableDec.VarDeclaration;
+import main.ast.nodes.expression.*;
+import main.ast.nodes.expression.values.ListValue;
+import main.ast.nodes.expression.values.NullValue;
+import main.ast.nodes.expression.values.primitive.BoolValue;
+import main.ast.nodes.expression.values.primitive.IntValue;
+import main.ast.nodes.expression.values.primitive.StringValue;
+import main.ast.nodes.statement.*;
+import main.ast.nodes.statement.loop.BreakStmt;
+import main.ast.nodes.statement.loop.ContinueStmt;
+import main.ast.nodes.statement.loop.ForStmt;
+import main.ast.nodes.statement.loop.ForeachStmt;
+import main.visitor.Visitor;
+
+public class NodeCounter extends Visitor<Integer> {
+
+    @Override
+    public Integer visit(Program program) {
+        int numOfNodes = 1;
+        for(ClassDeclaration classDeclaration : program.getClasses()) {
+            numOfNodes += classDeclaration.accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(ClassDeclaration classDeclaration) {
+        int numOfNodes = 1;
+        for(FieldDeclaration fieldDeclaration : classDeclaration.getFields()) {
+            numOfNodes += fieldDeclaration.accept(this);
+        }
+        if(classDeclaration.getConstructor() != null) {
+            numOfNodes += classDeclaration.getConstructor().accept(this);
+        }
+        for(MethodDeclaration methodDeclaration : classDeclaration.getMethods()) {
+            numOfNodes += methodDeclaration.accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(ConstructorDeclaration constructorDeclaration) {
+        return this.visit((MethodDeclaration) constructorDeclaration);
+    }
+
+    @Override
+    public Integer visit(MethodDeclaration methodDeclaration) {
+        int numOfNodes = 1;
+        for(VarDeclaration varDeclaration : methodDeclaration.getArgs()) {
+            numOfNodes += varDeclaration.accept(this);
+        }
+        for(VarDeclaration varDeclaration : methodDeclaration.getLocalVars()) {
+            numOfNodes += varDeclaration.accept(this);
+        }
+        for(Statement statement : methodDeclaration.getBody()) {
+            numOfNodes += statement.accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(FieldDeclaration fieldDeclaration) {
+        return 1 + fieldDeclaration.getVarDeclaration().accept(this);
+    }
+
+    @Override
+    public Integer visit(VarDeclaration varDeclaration) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(AssignmentStmt assignmentStmt) {
+        return 1 + assignmentStmt.getlValue().accept(this) + assignmentStmt.getrValue().accept(this);
+    }
+
+    @Override
+    public Integer visit(BlockStmt blockStmt) {
+        int numOfNodes = 1;
+        for(Statement statement : blockStmt.getStatements()) {
+            numOfNodes += statement.accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(ConditionalStmt conditionalStmt) {
+        int numOfNodes = 1 + conditionalStmt.getCondition().accept(this) + conditionalStmt.getThenBody().accept(this);
+        if(conditionalStmt.getElseBody() != null) {
+            numOfNodes += conditionalStmt.getElseBody().accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(MethodCallStmt methodCallStmt) {
+        return 1 + methodCallStmt.getMethodCall().accept(this);
+    }
+
+    @Override
+    public Integer visit(PrintStmt print) {
+        return 1 + print.getArg().accept(this);
+    }
+
+    @Override
+    public Integer visit(ReturnStmt returnStmt) {
+        return 1 + returnStmt.getReturnedExpr().accept(this);
+    }
+
+    @Override
+    public Integer visit(BreakStmt breakStmt) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(ContinueStmt continueStmt) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(ForeachStmt foreachStmt) {
+        return 1 + foreachStmt.getVariable().accept(this) + foreachStmt.getList().accept(this)
+                + foreachStmt.getBody().accept(this);
+    }
+
+    @Override
+    public Integer visit(ForStmt forStmt) {
+        int numOfNodes = 1;
+        if(forStmt.getInitialize() != null) {
+            numOfNodes += forStmt.getInitialize().accept(this);
+        }
+        if(forStmt.getCondition() != null) {
+            numOfNodes += forStmt.getCondition().accept(this);
+        }
+        if(forStmt.getUpdate() != null) {
+            numOfNodes += forStmt.getUpdate().accept(this);
+        }
+        if(forStmt.getBody() != null) {
+            numOfNodes += forStmt.getBody().accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(BinaryExpression binaryExpression) {
+        return 1 + binaryExpression.getFirstOperand().accept(this) + binaryExpression.getSecondOperand().accept(this);
+    }
+
+    @Override
+    public Integer visit(UnaryExpression unaryExpression) {
+        return 1 + unaryExpression.getOperand().accept(this);
+    }
+
+    @Override
+    public Integer visit(ObjectOrListMemberAccess objectOrListMemberAccess) {
+        return 1 + objectOrListMemberAccess.getInstance().accept(this);
+    }
+
+    @Override
+    public Integer visit(Identifier identifier) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(ListAccessByIndex listAccessByIndex) {
+        return 1 + listAccessByIndex.getInstance().accept(this) + listAccessByIndex.getIndex().accept(this);
+    }
+
+    @Override
+    public Integer visit(MethodCall methodCall) {
+        int numOfNodes = 1 + methodCall.getInstance().accept(this);
+        for(Expression expression : methodCall.getArgs()) {
+            numOfNodes += expression.accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(NewClassInstance newClassInstance) {
+        int numOfNodes = 1;
+        for(Expression expression : newClassInstance.getArgs()) {
+            numOfNodes += expression.accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(ThisClass thisClass) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(ListValue listValue) {
+        int numOfNodes = 1;
+        for(Expression expression : listValue.getElements()) {
+            numOfNodes += expression.accept(this);
+        }
+        return numOfNodes;
+    }
+
+    @Override
+    public Integer visit(NullValue nullValue) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(IntValue intValue) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(BoolValue boolValue) {
+        return 1;
+    }
+
+    @Override
+    public Integer visit(StringValue stringValue) {
+        return 1;
+    }
+
+}
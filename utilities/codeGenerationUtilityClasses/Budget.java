@@ -0,0 +1,28 @@
+import java.lang.management.ManagementFactory;
+
+public class Budget {
+    private static final int CHECK_INTERVAL = 1 << 12;
+    private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static long cpuTimeLimit = Long.MAX_VALUE;
+    private static long allocationLimit = Long.MAX_VALUE;
+    private static long cpuTimeStart;
+    private static long allocationStart;
+    private static int countdown = CHECK_INTERVAL;
+
+    public static void start(long cpuTimeLimit, long allocationLimit) {
+        Budget.cpuTimeLimit = cpuTimeLimit;
+        Budget.allocationLimit = allocationLimit;
+        Budget.cpuTimeStart = threads.getCurrentThreadCpuTime();
+        Budget.allocationStart = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void check() {
+        if(--countdown > 0)
+            return;
+        countdown = CHECK_INTERVAL;
+        if(threads.getCurrentThreadCpuTime() - cpuTimeStart > cpuTimeLimit)
+            throw new Error("CPU time budget exceeded");
+        if(threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocationStart > allocationLimit)
+            throw new Error("Allocation budget exceeded");
+    }
+}
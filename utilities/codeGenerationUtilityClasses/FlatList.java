@@ -0,0 +1,74 @@
+import java.util.Objects;
+
+public class FlatList extends List {
+    public int[] data;
+    public int start;
+    public int[] dimensions;
+    public int[] strides;
+    public int level;
+
+    public FlatList(int[] dimensions) {
+        this.dimensions = dimensions;
+        this.strides = new int[dimensions.length];
+        int size = 1;
+        for(int i = dimensions.length - 1; i >= 0; i--) {
+            this.strides[i] = size;
+            size *= dimensions[i];
+        }
+        this.data = new int[size];
+        recordAllocation(size);
+    }
+
+    private FlatList(FlatList that, int start, int level) {
+        this.data = that.data;
+        this.start = start;
+        this.dimensions = that.dimensions;
+        this.strides = that.strides;
+        this.level = level;
+    }
+
+    private int getSize() {
+        return this.dimensions[this.level] * this.strides[this.level];
+    }
+
+    //a flat list counts its ints, and is as deep as it has dimensions left
+    public List copy() {
+        ListCopyEvent event = beginCopy();
+        int[] newDimensions = new int[this.dimensions.length - this.level];
+        System.arraycopy(this.dimensions, this.level, newDimensions, 0, newDimensions.length);
+        FlatList list = new FlatList(newDimensions);
+        System.arraycopy(this.data, this.start, list.data, 0, getSize());
+        endCopy(event, getSize());
+        return list;
+    }
+
+    protected int getDepth() {
+        return this.dimensions.length - this.level;
+    }
+
+    public Object getElement(int index) {
+        Objects.checkIndex(index, this.dimensions[this.level]);
+        if(this.level == this.dimensions.length - 1)
+            return this.data[this.start + index];
+        return new FlatList(this, this.start + index * this.strides[this.level], this.level + 1);
+    }
+
+    public void setElement(int index, Object o) {
+        Objects.checkIndex(index, this.dimensions[this.level]);
+        if(this.level == this.dimensions.length - 1) {
+            this.data[this.start + index] = (Integer) o;
+            return;
+        }
+        if(o instanceof FlatList) {
+            FlatList that = (FlatList) o;
+            System.arraycopy(that.data, that.start, this.data, this.start + index * this.strides[this.level], that.getSize());
+            return;
+        }
+        ((FlatList) getElement(index)).setElements((List) o);
+    }
+
+    private void setElements(List that) {
+        for(int i = 0; i < this.dimensions[this.level]; i++)
+            setElement(i, that.getElement(i));
+    }
+}
@@ -17,20 +17,45 @@ public class Fptr {
         Object[] argsArray = new Object[argumentsSize];
         for(int i = 0; i < argumentsSize; i++) {
             argsClasses[i] = arguments.get(i).getClass();
+            if(arguments.get(i) instanceof List)
+                while(argsClasses[i].getSuperclass().getSuperclass() != null)
+                    argsClasses[i] = argsClasses[i].getSuperclass();
             argsArray[i] = arguments.get(i);
         }
         Method objectMethod = null;
+        MethodResolutionEvent resolution = new MethodResolutionEvent();
+        resolution.begin();
         try {
             objectMethod = this.instance.getClass().getMethod(this.methodName, argsClasses);
         } catch (NoSuchMethodException e) { 
             e.printStackTrace();
         }
+        resolution.end();
+        if(resolution.shouldCommit()) {
+            resolution.methodName = this.methodName;
+            resolution.argumentCount = argumentsSize;
+            resolution.commit();
+        }
+        MethodInvocationEvent invocation = new MethodInvocationEvent();
+        invocation.begin();
         try {
             return objectMethod.invoke(this.instance, argsArray);
-        } catch (IllegalAccessException | InvocationTargetException e) { 
-            e.printStackTrace();
-            System.exit(1);
+        } catch (InvocationTargetException e) {
+            //the program's own exception goes on up to Main.main, which ends the program with it
+            if(e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        } finally {
+            invocation.end();
+            if(invocation.shouldCommit()) {
+                invocation.methodName = this.methodName;
+                invocation.argumentCount = argumentsSize;
+                invocation.commit();
+            }
         }
-        return null;
     }
 }
\ No newline at end of file
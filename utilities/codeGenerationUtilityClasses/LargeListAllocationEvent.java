@@ -0,0 +1,12 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("sophia.LargeListAllocation")
+@Label("Large List Allocation")
+@Category("Sophia")
+public class LargeListAllocationEvent extends Event {
+    @Label("Size")
+    public int size;
+}
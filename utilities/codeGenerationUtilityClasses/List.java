@@ -1,21 +1,81 @@
 import java.util.ArrayList;
 
 public class List {
+    private static final int LARGE_LIST_SIZE = Integer.getInteger("sophia.jfr.largeListSize", 1 << 16);
+
     public ArrayList<Object> elements;
 
     public List(ArrayList<Object> newElements) {
         this.elements = new ArrayList<>();
         for(Object newElement : newElements)
             this.elements.add(getNewObject(newElement));
+        recordAllocation(this.elements.size());
     }
 
     public List(List that) {
         this(that.elements);
     }
 
+    protected List() {
+    }
+
+    private List(int size, Object element) {
+        this.elements = new ArrayList<>(size);
+        for(int i = 0; i < size; i++)
+            this.elements.add(getNewObject(element));
+        recordAllocation(this.elements.size());
+    }
+
+    public static List filled(int size, Object element) {
+        return new List(size, element);
+    }
+
+    public List copy() {
+        ListCopyEvent event = beginCopy();
+        List list = new List(this);
+        endCopy(event, this.elements.size());
+        return list;
+    }
+
+    //the events of every list layout go through these, so the layouts that override copy() or build their
+    //own storage are recorded like plain lists
+    protected static ListCopyEvent beginCopy() {
+        ListCopyEvent event = new ListCopyEvent();
+        event.begin();
+        return event;
+    }
+
+    protected void endCopy(ListCopyEvent event, int size) {
+        event.end();
+        if(event.shouldCommit()) {
+            event.size = size;
+            event.depth = getDepth();
+            event.commit();
+        }
+    }
+
+    protected int getDepth() {
+        int depth = 0;
+        if(this.elements != null)
+            for(Object element : this.elements)
+                if(element instanceof List)
+                    depth = Math.max(depth, ((List) element).getDepth());
+        return depth + 1;
+    }
+
+    protected static void recordAllocation(int size) {
+        if(size < LARGE_LIST_SIZE)
+            return;
+        LargeListAllocationEvent event = new LargeListAllocationEvent();
+        if(event.shouldCommit()) {
+            event.size = size;
+            event.commit();
+        }
+    }
+
     private Object getNewObject(Object o) {
         if(o instanceof List)
-            return new List((List) o);
+            return ((List) o).copy();
         else
             return o;
     }
@@ -0,0 +1,17 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("sophia.ListCopy")
+@Label("List Copy")
+@Category("Sophia")
+@Threshold("20 us")
+public class ListCopyEvent extends Event {
+    @Label("Size")
+    public int size;
+
+    @Label("Depth")
+    public int depth;
+}
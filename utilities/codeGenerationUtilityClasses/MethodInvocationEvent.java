@@ -0,0 +1,17 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("sophia.MethodInvocation")
+@Label("Method Invocation")
+@Category("Sophia")
+@Threshold("20 us")
+public class MethodInvocationEvent extends Event {
+    @Label("Method Name")
+    public String methodName;
+
+    @Label("Argument Count")
+    public int argumentCount;
+}
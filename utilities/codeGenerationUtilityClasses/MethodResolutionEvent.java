@@ -0,0 +1,17 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("sophia.MethodResolution")
+@Label("Method Resolution")
+@Category("Sophia")
+@Threshold("20 us")
+public class MethodResolutionEvent extends Event {
+    @Label("Method Name")
+    public String methodName;
+
+    @Label("Argument Count")
+    public int argumentCount;
+}
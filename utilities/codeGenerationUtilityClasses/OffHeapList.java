@@ -0,0 +1,39 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+public class OffHeapList extends List {
+    public ByteBuffer buffer;
+    public int size;
+    public boolean isBool;
+
+    public OffHeapList(int size, boolean isBool) {
+        this.size = size;
+        this.isBool = isBool;
+        this.buffer = ByteBuffer.allocateDirect(isBool ? size : size * 4).order(ByteOrder.nativeOrder());
+        recordAllocation(size);
+    }
+
+    public List copy() {
+        ListCopyEvent event = beginCopy();
+        OffHeapList list = new OffHeapList(this.size, this.isBool);
+        list.buffer.duplicate().put(this.buffer.duplicate());
+        endCopy(event, this.size);
+        return list;
+    }
+
+    public Object getElement(int index) {
+        Objects.checkIndex(index, this.size);
+        if(this.isBool)
+            return this.buffer.get(index) != 0;
+        return this.buffer.getInt(index * 4);
+    }
+
+    public void setElement(int index, Object o) {
+        Objects.checkIndex(index, this.size);
+        if(this.isBool)
+            this.buffer.put(index, (byte) ((Boolean) o ? 1 : 0));
+        else
+            this.buffer.putInt(index * 4, (Integer) o);
+    }
+}
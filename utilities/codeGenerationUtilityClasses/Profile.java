@@ -0,0 +1,67 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Profile {
+    private static final String[] sites = ProfileSites.getNames();
+    private static final LongAdder[] counters = new LongAdder[sites.length];
+
+    static {
+        for(int i = 0; i < counters.length; i++)
+            counters[i] = new LongAdder();
+    }
+
+    public static void count(int site) {
+        counters[site].increment();
+    }
+
+    public static void dump() {
+        long[] counts = new long[sites.length];
+        int[] order = new int[sites.length];
+        for(int i = 0; i < sites.length; i++) {
+            counts[i] = counters[i].sum();
+            int j = i;
+            while(j > 0 && counts[order[j - 1]] < counts[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        try {
+            PrintWriter text = new PrintWriter(new FileWriter("profile.txt"));
+            PrintWriter json = new PrintWriter(new FileWriter("profile.json"));
+            json.print("[");
+            for(int i = 0; i < order.length; i++) {
+                String[] site = sites[order[i]].split(" ");
+                text.print(counts[order[i]]);
+                text.print('\t');
+                text.print(site[0]);
+                text.print('\t');
+                text.print(site[1]);
+                text.print('.');
+                text.print(site[2]);
+                text.print(':');
+                text.println(site[3]);
+                if(i > 0)
+                    json.print(",");
+                json.print("\n  {\"kind\": \"");
+                json.print(site[0]);
+                json.print("\", \"class\": \"");
+                json.print(site[1]);
+                json.print("\", \"method\": \"");
+                json.print(site[2]);
+                json.print("\", \"line\": ");
+                json.print(site[3]);
+                json.print(", \"count\": ");
+                json.print(counts[order[i]]);
+                json.print("}");
+            }
+            json.println("\n]");
+            text.close();
+            json.close();
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
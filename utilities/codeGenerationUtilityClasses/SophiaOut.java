@@ -0,0 +1,61 @@
+public class SophiaOut {
+    private static final int CAPACITY = 1 << 16;
+    private static final byte[] buffer = new byte[CAPACITY];
+    private static final byte[] digits = new byte[10];
+    private static final byte[] trueBytes = {'t', 'r', 'u', 'e'};
+    private static final byte[] falseBytes = {'f', 'a', 'l', 's', 'e'};
+    private static int size;
+
+    public static void print(int value) {
+        if(size + 11 > CAPACITY)
+            flush();
+        if(value < 0)
+            buffer[size++] = '-';
+        else
+            value = -value;
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while(value != 0);
+        while(length > 0)
+            buffer[size++] = digits[--length];
+    }
+
+    public static void print(boolean value) {
+        write(value ? trueBytes : falseBytes);
+    }
+
+    public static void print(String value) {
+        int length = value.length();
+        for(int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if(c >= 0x80) {
+                flush();
+                System.out.print(value.substring(i));
+                return;
+            }
+            if(size == CAPACITY)
+                flush();
+            buffer[size++] = (byte) c;
+        }
+    }
+
+    private static void write(byte[] bytes) {
+        int written = 0;
+        while(written < bytes.length) {
+            if(size == CAPACITY)
+                flush();
+            int length = Math.min(bytes.length - written, CAPACITY - size);
+            System.arraycopy(bytes, written, buffer, size, length);
+            size += length;
+            written += length;
+        }
+    }
+
+    public static void flush() {
+        System.out.write(buffer, 0, size);
+        System.out.flush();
+        size = 0;
+    }
+}